@@ -0,0 +1,125 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.wnameless.jsonapi.AttributesWriter;
+import com.github.wnameless.jsonapi.AttributesWriterRegistry;
+import com.github.wnameless.jsonapi.ObjectMapperFactory;
+import com.github.wnameless.jsonapi.ObjectMapperSnapshot;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+
+/**
+ * 
+ * {@link AttributesWriterBenchmark} compares writing articles by Jackson with
+ * writing them by a hand-written {@link AttributesWriter}.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AttributesWriterBenchmark {
+
+  private static final AttributesWriter<Article> ARTICLE_WRITER =
+      new AttributesWriter<Article>() {
+
+        @Override
+        public void write(Article article, JsonGenerator generator)
+            throws IOException {
+          generator.writeStartObject();
+          if (article.getId() == null) {
+            generator.writeNullField("id");
+          } else {
+            generator.writeNumberField("id", article.getId());
+          }
+          generator.writeStringField("title", article.getTitle());
+          generator.writeStringField("body", article.getBody());
+          generator.writeFieldName("tags");
+          if (article.getTags() == null) {
+            generator.writeNull();
+          } else {
+            generator.writeStartArray();
+            for (String tag : article.getTags()) {
+              generator.writeString(tag);
+            }
+            generator.writeEndArray();
+          }
+          generator.writeBooleanField("published", article.isPublished());
+          generator.writeNumberField("views", article.getViews());
+          generator.writeNumberField("rating", article.getRating());
+          generator.writeNumberField("createdAt", article.getCreatedAt());
+          generator.writeEndObject();
+        }
+
+      };
+
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private ResourcesDocument<Article> document;
+
+  private ObjectMapperSnapshot plain;
+
+  private ObjectMapperSnapshot handWritten;
+
+  @Setup
+  public void setUp() {
+    document = Fixtures.resourcesDocument(size);
+    plain = ObjectMapperFactory.getSnapshot();
+    handWritten = plain.withAttributesWriters(
+        new AttributesWriterRegistry().register("articles", Article.class,
+            ARTICLE_WRITER));
+  }
+
+  @TearDown
+  public void tearDown() {
+    ObjectMapperFactory.setSnapshot(plain);
+  }
+
+  @Benchmark
+  public byte[] jacksonAttributes() {
+    ObjectMapperFactory.setSnapshot(plain);
+    return document.toJsonBytes();
+  }
+
+  @Benchmark
+  public byte[] attributesWriter() {
+    ObjectMapperFactory.setSnapshot(handWritten);
+    return document.toJsonBytes();
+  }
+
+}
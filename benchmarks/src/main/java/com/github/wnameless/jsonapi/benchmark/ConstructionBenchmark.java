@@ -0,0 +1,74 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.wnameless.jsonapi.JsonApi;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+
+/**
+ * 
+ * {@link ConstructionBenchmark} compares building a resources document on the
+ * calling thread with building it on all cores.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstructionBenchmark {
+
+  @Param({ "1000", "100000" })
+  public int size;
+
+  private List<Article> articles;
+
+  @Setup
+  public void setUp() {
+    articles = Fixtures.articles(size);
+  }
+
+  @Benchmark
+  public ResourcesDocument<Article> resourcesDocument() {
+    return JsonApi.resourcesDocument(articles, "articles",
+        Fixtures.ARTICLE_ID);
+  }
+
+  @Benchmark
+  public ResourcesDocument<Article> parallelResourcesDocument() {
+    return JsonApi.parallelResourcesDocument(articles, "articles",
+        Fixtures.ARTICLE_ID);
+  }
+
+}
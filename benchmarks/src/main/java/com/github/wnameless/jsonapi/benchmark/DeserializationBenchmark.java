@@ -0,0 +1,123 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.wnameless.jsonapi.ErrorsDocument;
+import com.github.wnameless.jsonapi.JsonApi;
+import com.github.wnameless.jsonapi.ResourceDocument;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+import com.github.wnameless.jsonapi.ResourcesDocumentReader;
+import com.google.common.base.Charsets;
+
+/**
+ * 
+ * {@link DeserializationBenchmark} measures the deserialization of every
+ * document type and a full read-write round trip. Run it with -prof gc to
+ * report the allocation rate as well.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeserializationBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private byte[] resourceDocument;
+
+  private byte[] resourcesDocument;
+
+  private byte[] compoundDocument;
+
+  private byte[] errorsDocument;
+
+  @Setup
+  public void setUp() {
+    resourceDocument =
+        Fixtures.resourceDocument().toJson().getBytes(Charsets.UTF_8);
+    resourcesDocument =
+        Fixtures.resourcesDocument(size).toJson().getBytes(Charsets.UTF_8);
+    compoundDocument =
+        Fixtures.compoundDocument(size).toJson().getBytes(Charsets.UTF_8);
+    errorsDocument = Fixtures.errorsDocument(Math.min(size, 100)).toJson()
+        .getBytes(Charsets.UTF_8);
+  }
+
+  @Benchmark
+  public ResourceDocument<Article> readResourceDocument() throws IOException {
+    return JsonApi.readResourceDocument(resourceDocument, Article.class);
+  }
+
+  @Benchmark
+  public ResourcesDocument<Article> readResourcesDocument()
+      throws IOException {
+    return JsonApi.readResourcesDocument(resourcesDocument, Article.class);
+  }
+
+  @Benchmark
+  public void readResourcesDocumentIncrementally(Blackhole blackhole)
+      throws IOException {
+    ResourcesDocumentReader<Article> reader = JsonApi.resourcesDocumentReader(
+        new ByteArrayInputStream(resourcesDocument), Article.class);
+    try {
+      while (reader.hasNext()) {
+        blackhole.consume(reader.next());
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Benchmark
+  public ResourcesDocument<Article> readCompoundDocument() throws IOException {
+    return JsonApi.readResourcesDocument(compoundDocument, Article.class);
+  }
+
+  @Benchmark
+  public ErrorsDocument readErrorsDocument() throws IOException {
+    return JsonApi.readErrorsDocument(errorsDocument);
+  }
+
+  @Benchmark
+  public String roundTrip() throws IOException {
+    return JsonApi.readResourcesDocument(compoundDocument, Article.class)
+        .toJson();
+  }
+
+}
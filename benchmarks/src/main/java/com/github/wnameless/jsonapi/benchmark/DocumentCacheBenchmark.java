@@ -0,0 +1,105 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.wnameless.jsonapi.CachedDocument;
+import com.github.wnameless.jsonapi.DocumentCache;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+import com.google.common.base.Supplier;
+
+/**
+ * 
+ * {@link DocumentCacheBenchmark} compares serializing a document on every
+ * request with looking it up in a {@link DocumentCache} by content and by a
+ * key and version.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentCacheBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private ResourcesDocument<Article> document;
+
+  private ResourcesDocument<Article> frozen;
+
+  private Supplier<ResourcesDocument<Article>> supplier;
+
+  private DocumentCache cache;
+
+  private String etag;
+
+  @Setup
+  public void setUp() {
+    document = Fixtures.resourcesDocument(size);
+    frozen = document.freeze();
+    supplier = new Supplier<ResourcesDocument<Article>>() {
+
+      @Override
+      public ResourcesDocument<Article> get() {
+        return document;
+      }
+
+    };
+    cache = new DocumentCache(Long.MAX_VALUE);
+    etag = cache.get(frozen).getETag();
+    cache.get("/articles", 1, supplier);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return document.toJsonBytes();
+  }
+
+  @Benchmark
+  public byte[] cachedByContent() {
+    return cache.get(frozen).toBytes();
+  }
+
+  @Benchmark
+  public byte[] cachedByVersion() {
+    return cache.get("/articles", 1, supplier).toBytes();
+  }
+
+  @Benchmark
+  public boolean notModified() {
+    CachedDocument cached = cache.getIfPresent("/articles", 1);
+    return cached != null && cached.matches(etag);
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.wnameless.jsonapi.ErrorsDocument;
+import com.github.wnameless.jsonapi.JsonApi;
+import com.github.wnameless.jsonapi.ResourceDocument;
+import com.github.wnameless.jsonapi.ResourceObject;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+import com.google.common.base.Function;
+
+/**
+ * 
+ * {@link Fixtures} builds the documents used by the benchmarks.
+ *
+ */
+public final class Fixtures {
+
+  private Fixtures() {}
+
+  public static final Function<Article, String> ARTICLE_ID =
+      new Function<Article, String>() {
+
+        @Override
+        public String apply(Article input) {
+          return input.getId().toString();
+        }
+
+      };
+
+  public static Article article(long id) {
+    Article article = new Article();
+    article.setId(id);
+    article.setTitle("JSON API paints my bikeshed! #" + id);
+    article.setBody("The shortest article. Ever. Well, it is article number "
+        + id + " and it still is pretty short.");
+    article.setTags(Arrays.asList("json", "api", "bikeshed"));
+    article.setPublished(id % 2 == 0);
+    article.setViews(id * 31);
+    article.setRating((id % 50) / 10.0);
+    article.setCreatedAt(1451606400000L + id * 1000);
+    return article;
+  }
+
+  public static List<Article> articles(int size) {
+    List<Article> articles = newArrayList();
+    for (long i = 1; i <= size; i++) {
+      articles.add(article(i));
+    }
+    return articles;
+  }
+
+  public static Person person(long id) {
+    Person person = new Person();
+    person.setName("Dan Gebhardt #" + id);
+    person.setEmail("dgeb" + id + "@example.com");
+    return person;
+  }
+
+  public static ResourceDocument<Article> resourceDocument() {
+    return JsonApi.resourceDocument(article(1), "articles", "1");
+  }
+
+  public static ResourcesDocument<Article> resourcesDocument(int size) {
+    return JsonApi.resourcesDocument(articles(size), "articles", ARTICLE_ID);
+  }
+
+  public static ResourcesDocument<Article> compoundDocument(int size) {
+    ResourcesDocument<Article> document = resourcesDocument(size);
+    int people = Math.max(1, size / 10);
+    for (ResourceObject<Article> resource : document.getData()) {
+      long authorId = Long.parseLong(resource.getId()) % people + 1;
+      resource.getRelationships().put("author", JsonApi
+          .relationship(null, "people", String.valueOf(authorId)));
+    }
+    for (long i = 1; i <= people; i++) {
+      document.getIncluded()
+          .add(JsonApi.resource(person(i), "people", String.valueOf(i)));
+    }
+    return document;
+  }
+
+  public static ErrorsDocument errorsDocument(int size) {
+    ErrorsDocument document = JsonApi.errorsDocument();
+    for (int i = 1; i <= size; i++) {
+      document.getErrors()
+          .add(JsonApi.error().withStatus("422").withCode("E" + i)
+              .withTitle("Invalid Attribute").withDetail(
+                  "First name must contain at least three characters."));
+    }
+    return document;
+  }
+
+}
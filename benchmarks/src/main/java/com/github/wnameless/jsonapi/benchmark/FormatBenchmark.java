@@ -0,0 +1,94 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.wnameless.jsonapi.DocumentFormat;
+import com.github.wnameless.jsonapi.JsonApi;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+
+/**
+ * 
+ * {@link FormatBenchmark} compares writing and reading a compound resources
+ * document in JSON and in Smile. The encoded sizes of both formats are printed
+ * during the setup.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private ResourcesDocument<Article> document;
+
+  private byte[] json;
+
+  private byte[] smile;
+
+  @Setup
+  public void setUp() {
+    document = Fixtures.compoundDocument(size);
+    json = DocumentFormat.JSON.toBytes(document);
+    smile = DocumentFormat.SMILE.toBytes(document);
+    System.out.println("JSON: " + json.length + " bytes, Smile: "
+        + smile.length + " bytes");
+  }
+
+  @Benchmark
+  public byte[] writeJson() {
+    return DocumentFormat.JSON.toBytes(document);
+  }
+
+  @Benchmark
+  public byte[] writeSmile() {
+    return DocumentFormat.SMILE.toBytes(document);
+  }
+
+  @Benchmark
+  public ResourcesDocument<Article> readJson() throws IOException {
+    return JsonApi.readResourcesDocument(json, Article.class,
+        DocumentFormat.JSON);
+  }
+
+  @Benchmark
+  public ResourcesDocument<Article> readSmile() throws IOException {
+    return JsonApi.readResourcesDocument(smile, Article.class,
+        DocumentFormat.SMILE);
+  }
+
+}
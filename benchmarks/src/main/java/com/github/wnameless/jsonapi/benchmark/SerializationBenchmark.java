@@ -0,0 +1,122 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.wnameless.jsonapi.ErrorsDocument;
+import com.github.wnameless.jsonapi.JsonApi;
+import com.github.wnameless.jsonapi.ResourceDocument;
+import com.github.wnameless.jsonapi.ResourcesDocument;
+import com.google.common.io.ByteStreams;
+
+/**
+ * 
+ * {@link SerializationBenchmark} measures the serialization of every document
+ * type. Run it with -prof gc to report the allocation rate as well.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private final OutputStream sink = ByteStreams.nullOutputStream();
+
+  private ResourceDocument<Article> resourceDocument;
+
+  private ResourcesDocument<Article> resourcesDocument;
+
+  private ResourcesDocument<Article> compoundDocument;
+
+  private ErrorsDocument errorsDocument;
+
+  private List<Article> articles;
+
+  @Setup
+  public void setUp() {
+    resourceDocument = Fixtures.resourceDocument();
+    resourcesDocument = Fixtures.resourcesDocument(size);
+    compoundDocument = Fixtures.compoundDocument(size);
+    errorsDocument = Fixtures.errorsDocument(Math.min(size, 100));
+    articles = Fixtures.articles(size);
+  }
+
+  @Benchmark
+  public String resourceDocumentToJson() {
+    return resourceDocument.toJson();
+  }
+
+  @Benchmark
+  public String resourcesDocumentToJson() {
+    return resourcesDocument.toJson();
+  }
+
+  @Benchmark
+  public byte[] resourcesDocumentToJsonBytes() {
+    return resourcesDocument.toJsonBytes();
+  }
+
+  @Benchmark
+  public void resourcesDocumentWriteTo() throws IOException {
+    resourcesDocument.writeTo(sink);
+  }
+
+  @Benchmark
+  public void resourcesDocumentParallelWriteTo() throws IOException {
+    resourcesDocument.writeTo(sink, null);
+  }
+
+  @Benchmark
+  public void resourcesDocumentWriterWriteTo() throws IOException {
+    JsonApi.resourcesDocumentWriter(articles.iterator(), "articles",
+        Fixtures.ARTICLE_ID).writeTo(sink);
+  }
+
+  @Benchmark
+  public String compoundDocumentToJson() {
+    return compoundDocument.toJson();
+  }
+
+  @Benchmark
+  public String errorsDocumentToJson() {
+    return errorsDocument.toJson();
+  }
+
+}
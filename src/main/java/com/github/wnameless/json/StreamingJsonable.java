@@ -0,0 +1,96 @@
+/*
+ *
+ * Copyright 2015 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * 
+ * {@link StreamingJsonable} is a {@link Jsonable} which can also be streamed
+ * as JSON without building an intermediate string. It is a separate interface,
+ * so existing implementations of {@link Jsonable} keep compiling and linking.
+ *
+ * @param <T>
+ *          the type of jsonable object
+ */
+public interface StreamingJsonable<T> extends Jsonable<T> {
+
+  /**
+   * Returns the UTF-8 encoded JSON which represents this object without
+   * building an intermediate string.
+   * 
+   * @return JSON bytes
+   */
+  public byte[] toJsonBytes();
+
+  /**
+   * Writes the JSON which represents this object into an {@link OutputStream}
+   * without building an intermediate string. The stream is flushed but not
+   * closed.
+   * 
+   * @param out
+   *          an {@link OutputStream}
+   * @throws IOException
+   *           if the JSON can't be written
+   */
+  public void writeTo(OutputStream out) throws IOException;
+
+  /**
+   * Writes the JSON which represents this object into a {@link Writer} without
+   * building an intermediate string. The writer is flushed but not closed.
+   * 
+   * @param writer
+   *          a {@link Writer}
+   * @throws IOException
+   *           if the JSON can't be written
+   */
+  public void writeTo(Writer writer) throws IOException;
+
+  /**
+   * Writes the JSON which represents this object through a
+   * {@link JsonGenerator}, so it can be embedded into a larger JSON output.
+   * 
+   * @param generator
+   *          a {@link JsonGenerator}
+   * @throws IOException
+   *           if the JSON can't be written
+   */
+  public void writeTo(JsonGenerator generator) throws IOException;
+
+  /**
+   * Writes the UTF-8 encoded JSON which represents this object into a
+   * {@link ByteBuffer} starting at its current position, the position is
+   * advanced by the number of bytes written.
+   * 
+   * @param buffer
+   *          a {@link ByteBuffer}
+   * @throws IOException
+   *           if the JSON can't be written
+   * @throws BufferOverflowException
+   *           if the buffer has not enough space left, the buffer may be
+   *           partially written in that case
+   */
+  public void writeTo(ByteBuffer buffer) throws IOException;
+
+}
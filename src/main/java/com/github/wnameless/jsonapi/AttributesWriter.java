@@ -0,0 +1,49 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * 
+ * {@link AttributesWriter} writes the attributes object of a resource directly
+ * to a {@link JsonGenerator}. A hand-written {@link AttributesWriter} emits the
+ * attributes of a hot resource type without any reflection or per-property
+ * lookups. It is registered in an {@link AttributesWriterRegistry}.
+ *
+ * @param <T>
+ *          the type of attributes
+ */
+public interface AttributesWriter<T> {
+
+  /**
+   * Writes given attributes as a complete JSON object, including the start
+   * and the end of the object.
+   * 
+   * @param attributes
+   *          the attributes of a resource, never null
+   * @param generator
+   *          a {@link JsonGenerator}
+   * @throws IOException
+   *           if the attributes can't be written
+   */
+  void write(T attributes, JsonGenerator generator) throws IOException;
+
+}
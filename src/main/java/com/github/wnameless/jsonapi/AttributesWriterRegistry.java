@@ -0,0 +1,176 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * 
+ * {@link AttributesWriterRegistry} holds the {@link AttributesWriter}s of
+ * resource types or of attribute classes. It takes effect once it is set to
+ * an {@link ObjectMapperSnapshot} by
+ * {@link ObjectMapperSnapshot#withAttributesWriters}.<br>
+ * <br>
+ * A writer registered by the type of resource is looked up first, it is only
+ * used if the attributes are an instance of the class it is registered with,
+ * so attributes of another shape, ex: a Map read from a request or
+ * {@link RawAttributes}, never reach it. Then a writer registered by the
+ * exact class of attributes is looked up. Attributes without any
+ * writer are serialized by Jackson as usual. Writers are skipped if
+ * {@link SparseFieldsets} are applied to the type of resource, because the
+ * fields have to be filtered.<br>
+ * <br>
+ * A snapshot keeps an immutable copy of the registry, so registering writers
+ * afterward doesn't change it, and the copy returned by
+ * {@link ObjectMapperSnapshot#getAttributesWriters} can't be modified.
+ *
+ */
+public final class AttributesWriterRegistry {
+
+  private final Map<String, TypeWriter> typeWriters;
+
+  private final Map<Class<?>, AttributesWriter<?>> classWriters;
+
+  private final boolean attached;
+
+  /**
+   * Creates an empty {@link AttributesWriterRegistry}.
+   */
+  public AttributesWriterRegistry() {
+    typeWriters = new ConcurrentHashMap<String, TypeWriter>();
+    classWriters = new ConcurrentHashMap<Class<?>, AttributesWriter<?>>();
+    attached = false;
+  }
+
+  private AttributesWriterRegistry(AttributesWriterRegistry source) {
+    typeWriters = ImmutableMap.copyOf(source.typeWriters);
+    classWriters = ImmutableMap.copyOf(source.classWriters);
+    attached = true;
+  }
+
+  /**
+   * Returns an immutable copy of this {@link AttributesWriterRegistry} which
+   * can be attached to an {@link ObjectMapperSnapshot}.
+   * 
+   * @return an immutable {@link AttributesWriterRegistry}
+   */
+  AttributesWriterRegistry attachedCopy() {
+    return attached ? this : new AttributesWriterRegistry(this);
+  }
+
+  private void checkModifiable() {
+    checkState(!attached,
+        "AttributesWriterRegistry of a snapshot can't be modified");
+  }
+
+  /**
+   * Registers an {@link AttributesWriter} for the type of resource. The writer
+   * is used for attributes of the type which are instances of given class,
+   * others are written as if no writer was registered for the type.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param type
+   *          the type of resource
+   * @param attributeClass
+   *          the class of attributes the writer accepts
+   * @param writer
+   *          an {@link AttributesWriter}
+   * @return this {@link AttributesWriterRegistry}
+   * @throws IllegalStateException
+   *           if this registry belongs to a snapshot
+   */
+  public <T> AttributesWriterRegistry register(String type,
+      Class<T> attributeClass, AttributesWriter<? super T> writer) {
+    checkModifiable();
+    typeWriters.put(checkNotNull(type),
+        new TypeWriter(checkNotNull(attributeClass), checkNotNull(writer)));
+    return this;
+  }
+
+  /**
+   * Registers an {@link AttributesWriter} for the exact class of attributes.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param attributeClass
+   *          the class of attributes
+   * @param writer
+   *          an {@link AttributesWriter}
+   * @return this {@link AttributesWriterRegistry}
+   * @throws IllegalStateException
+   *           if this registry belongs to a snapshot
+   */
+  public <T> AttributesWriterRegistry register(Class<T> attributeClass,
+      AttributesWriter<? super T> writer) {
+    checkModifiable();
+    classWriters.put(checkNotNull(attributeClass), checkNotNull(writer));
+    return this;
+  }
+
+  /**
+   * Returns the {@link AttributesWriter} for given type of resource and class
+   * of attributes.
+   * 
+   * @param type
+   *          the type of resource
+   * @param attributeClass
+   *          the class of attributes
+   * @return an {@link AttributesWriter} or null if none is registered
+   */
+  @SuppressWarnings("unchecked")
+  AttributesWriter<Object> find(String type, Class<?> attributeClass) {
+    AttributesWriter<?> writer = null;
+    if (type != null && !typeWriters.isEmpty()) {
+      TypeWriter typeWriter = typeWriters.get(type);
+      if (typeWriter != null
+          && typeWriter.attributeClass.isAssignableFrom(attributeClass)) {
+        writer = typeWriter.writer;
+      }
+    }
+    if (writer == null) writer = classWriters.get(attributeClass);
+    return (AttributesWriter<Object>) writer;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("types", typeWriters.keySet())
+        .add("classes", classWriters.keySet()).toString();
+  }
+
+  private static final class TypeWriter {
+
+    private final Class<?> attributeClass;
+
+    private final AttributesWriter<?> writer;
+
+    private TypeWriter(Class<?> attributeClass, AttributesWriter<?> writer) {
+      this.attributeClass = attributeClass;
+      this.writer = writer;
+    }
+
+  }
+
+}
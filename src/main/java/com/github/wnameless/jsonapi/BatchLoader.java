@@ -0,0 +1,43 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.util.Set;
+
+/**
+ * 
+ * {@link BatchLoader} loads resources of one type by a batch of ids. It is
+ * called by {@link IncludeResolver} once per type on each level of the include
+ * paths, so related resources are never fetched one by one.
+ *
+ */
+public interface BatchLoader {
+
+  /**
+   * Loads resources of given type and ids. Resources which can't be found can
+   * simply be left out.
+   * 
+   * @param type
+   *          the type of resources
+   * @param ids
+   *          the ids of resources
+   * @return {@link ResourceObject}s
+   */
+  Iterable<? extends ResourceObject<?>> load(String type, Set<String> ids);
+
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+/**
+ * 
+ * {@link BeanDocumentValidator} validates documents against the Bean Validation
+ * constraints of the model and of the attribute classes, ex: {@literal @}
+ * NotNull and {@literal @}Valid. Bootstrapping a {@link ValidatorFactory} is
+ * expensive, so the {@link Validator} is created once and reused. The default
+ * instance bootstraps the default {@link ValidatorFactory} on first use, which
+ * requires a Bean Validation provider on the classpath.
+ *
+ */
+public final class BeanDocumentValidator implements DocumentValidator {
+
+  private static final Comparator<ErrorObject> BY_POINTER =
+      new Comparator<ErrorObject>() {
+
+        @Override
+        public int compare(ErrorObject o1, ErrorObject o2) {
+          return o1.getSource().getPointer()
+              .compareTo(o2.getSource().getPointer());
+        }
+
+      };
+
+  private static final class DefaultHolder {
+
+    private static final BeanDocumentValidator INSTANCE =
+        new BeanDocumentValidator(Validation.buildDefaultValidatorFactory());
+
+  }
+
+  private final Validator validator;
+
+  /**
+   * Creates a {@link BeanDocumentValidator} which uses a {@link Validator} of
+   * given {@link ValidatorFactory}.
+   * 
+   * @param validatorFactory
+   *          a {@link ValidatorFactory}
+   */
+  public BeanDocumentValidator(ValidatorFactory validatorFactory) {
+    validator = validatorFactory.getValidator();
+  }
+
+  /**
+   * Creates a {@link BeanDocumentValidator} which uses given
+   * {@link Validator}.
+   * 
+   * @param validator
+   *          a {@link Validator}
+   */
+  public BeanDocumentValidator(Validator validator) {
+    this.validator = checkNotNull(validator);
+  }
+
+  /**
+   * Returns the shared {@link BeanDocumentValidator} backed by the default
+   * {@link ValidatorFactory}.
+   * 
+   * @return a {@link BeanDocumentValidator}
+   */
+  public static BeanDocumentValidator getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  @Override
+  public List<ErrorObject> validate(Document<?> document) {
+    Set<ConstraintViolation<Object>> violations =
+        validator.validate((Object) document);
+    if (violations.isEmpty()) return Collections.emptyList();
+
+    List<ErrorObject> errors = newArrayList();
+    for (ConstraintViolation<Object> violation : violations) {
+      errors.add(new ErrorObject().withStatus("422")
+          .withTitle("Invalid member").withDetail(violation.getMessage())
+          .withSource(new SourceObject()
+              .withPointer(toPointer(violation.getPropertyPath()))));
+    }
+    Collections.sort(errors, BY_POINTER);
+    return errors;
+  }
+
+  /**
+   * Converts a Bean Validation property path to a JSON pointer, ex:
+   * data[3].type to /data/3/type.
+   * 
+   * @param path
+   *          a {@link Path}
+   * @return a JSON pointer
+   */
+  static String toPointer(Path path) {
+    StringBuilder pointer = new StringBuilder();
+    for (Path.Node node : path) {
+      if (node.isInIterable()) {
+        pointer.append('/');
+        if (node.getIndex() != null) {
+          pointer.append(node.getIndex());
+        } else if (node.getKey() != null) {
+          pointer.append(StructuralValidator.escape(node.getKey().toString()));
+        }
+      }
+      if (node.getName() != null) {
+        pointer.append('/').append(StructuralValidator.escape(node.getName()));
+      }
+    }
+    return pointer.toString();
+  }
+
+}
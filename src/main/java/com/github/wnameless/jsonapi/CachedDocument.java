@@ -0,0 +1,114 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * 
+ * {@link CachedDocument} is a serialized JSON API document held by a
+ * {@link DocumentCache} together with the strong entity tag of its bytes.
+ * The bytes are never exposed directly, so a {@link CachedDocument} can be
+ * shared among threads safely.
+ *
+ */
+public final class CachedDocument {
+
+  private final byte[] bytes;
+
+  private final String etag;
+
+  CachedDocument(byte[] bytes) {
+    this.bytes = bytes;
+    etag = ETags.of(bytes);
+  }
+
+  /**
+   * Returns the strong entity tag of the serialized document.
+   * 
+   * @return a quoted strong entity tag
+   */
+  public String getETag() {
+    return etag;
+  }
+
+  /**
+   * Checks if an If-None-Match header value matches the entity tag of this
+   * document.
+   * 
+   * @param ifNoneMatch
+   *          the If-None-Match header value, may be null
+   * @return true if the response can be answered with 304 Not Modified,
+   *         false otherwise
+   */
+  public boolean matches(String ifNoneMatch) {
+    return ETags.matches(ifNoneMatch, etag);
+  }
+
+  /**
+   * Returns the number of serialized bytes.
+   * 
+   * @return the number of serialized bytes
+   */
+  public int size() {
+    return bytes.length;
+  }
+
+  /**
+   * Returns a copy of the serialized bytes.
+   * 
+   * @return JSON bytes
+   */
+  public byte[] toBytes() {
+    return bytes.clone();
+  }
+
+  /**
+   * Writes the serialized bytes to an {@link OutputStream}. The stream gets a
+   * copy of the bytes, so it can't alter the cached ones.
+   * 
+   * @param out
+   *          an {@link OutputStream}
+   * @throws IOException
+   *           if the bytes can't be written
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(bytes.clone());
+  }
+
+  /**
+   * Writes the serialized bytes into a {@link ByteBuffer}.
+   * 
+   * @param buffer
+   *          a {@link ByteBuffer}
+   */
+  public void writeTo(ByteBuffer buffer) {
+    buffer.put(bytes);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("etag", etag)
+        .add("size", bytes.length).toString();
+  }
+
+}
@@ -0,0 +1,302 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.github.wnameless.json.StreamingJsonable;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * 
+ * {@link DocumentCache} is a bounded cache of serialized JSON API documents.
+ * Identical documents are serialized only once, and the cached bytes come
+ * with a strong entity tag, so conditional requests can be answered without
+ * serializing at all.<br>
+ * <br>
+ * Documents are cached either by their content or by a caller provided key
+ * and version. The content of a document is identified by the SHA-256 digest
+ * of its serialized form, which is collision resistant, so a cached entry is
+ * never served for different content. Only the digest is kept as the key, so
+ * the cache holds no reference to the document, the limit bounds the memory
+ * used apart from a small overhead per entry, and attributes don't need to
+ * implement equals and hashCode. A document looked up by its content is
+ * serialized once per lookup to compute the digest, and the same bytes are
+ * cached on a miss. The digest of a frozen document, see
+ * {@link ResourceDocument#freeze}, is remembered, so it is looked up again
+ * without serializing. A caller provided key and version is the cheapest,
+ * and the document is only built on a cache miss.<br>
+ * <br>
+ * Entries are evicted once the total number of cached bytes approaches the
+ * limit or after they expire. The bytes depend on the current
+ * {@link ObjectMapperSnapshot}, so {@link #invalidateAll} should be called
+ * after a new snapshot is published.
+ *
+ */
+public final class DocumentCache {
+
+  private static final HashFunction CONTENT_HASH = Hashing.sha256();
+
+  private final Cache<Object, CachedDocument> cache;
+
+  private final Cache<Object, HashCode> digests =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+  /**
+   * Creates a {@link DocumentCache} without expiration.
+   * 
+   * @param maxBytes
+   *          the maximum number of cached bytes
+   */
+  public DocumentCache(long maxBytes) {
+    this(maxBytes, 0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Creates a {@link DocumentCache}.
+   * 
+   * @param maxBytes
+   *          the maximum number of cached bytes
+   * @param expireAfterWrite
+   *          the time after which an entry expires, 0 means never
+   * @param unit
+   *          the {@link TimeUnit} of expireAfterWrite
+   */
+  public DocumentCache(long maxBytes, long expireAfterWrite, TimeUnit unit) {
+    checkArgument(maxBytes >= 0, "maxBytes must not be negative");
+    checkArgument(expireAfterWrite >= 0,
+        "expireAfterWrite must not be negative");
+    CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder().maximumWeight(maxBytes).recordStats();
+    if (expireAfterWrite > 0) {
+      builder.expireAfterWrite(expireAfterWrite, checkNotNull(unit));
+    }
+    cache = builder.weigher(new Weigher<Object, CachedDocument>() {
+
+      @Override
+      public int weigh(Object key, CachedDocument value) {
+        return value.size();
+      }
+
+    }).build();
+  }
+
+  /**
+   * Returns the {@link CachedDocument} of a {@link ResourceDocument}, it is
+   * serialized and cached by its content on a cache miss.
+   * 
+   * @param document
+   *          a {@link ResourceDocument}
+   * @return a {@link CachedDocument}
+   */
+  public CachedDocument get(ResourceDocument<?> document) {
+    return getByContent(document, ResourceDocument.isFrozen(document));
+  }
+
+  /**
+   * Returns the {@link CachedDocument} of a {@link ResourcesDocument}, it is
+   * serialized and cached by its content on a cache miss.
+   * 
+   * @param document
+   *          a {@link ResourcesDocument}
+   * @return a {@link CachedDocument}
+   */
+  public CachedDocument get(ResourcesDocument<?> document) {
+    return getByContent(document, ResourcesDocument.isFrozen(document));
+  }
+
+  /**
+   * Returns the {@link CachedDocument} of an {@link ErrorsDocument}, it is
+   * serialized and cached by its content on a cache miss.
+   * 
+   * @param document
+   *          an {@link ErrorsDocument}
+   * @return a {@link CachedDocument}
+   */
+  public CachedDocument get(ErrorsDocument document) {
+    return getByContent(document, ErrorsDocument.isFrozen(document));
+  }
+
+  /**
+   * Returns the {@link CachedDocument} of given key and version. On a cache
+   * miss, the document is built by the {@link Supplier}, serialized and
+   * cached. Entries of older versions are left to be evicted.
+   * 
+   * @param key
+   *          a key of the document, ex: the request URI
+   * @param version
+   *          the version of the document
+   * @param document
+   *          a {@link Supplier} which builds the document
+   * @return a {@link CachedDocument}
+   */
+  public CachedDocument get(Object key, long version,
+      final Supplier<? extends StreamingJsonable<?>> document) {
+    checkNotNull(document);
+    return load(new VersionedKey(checkNotNull(key), version),
+        new Callable<CachedDocument>() {
+
+          @Override
+          public CachedDocument call() {
+            return new CachedDocument(document.get().toJsonBytes());
+          }
+
+        });
+  }
+
+  /**
+   * Returns the {@link CachedDocument} of given key and version if it is
+   * cached. Together with {@link CachedDocument#matches}, a conditional
+   * request can be answered without building the document.
+   * 
+   * @param key
+   *          a key of the document
+   * @param version
+   *          the version of the document
+   * @return a {@link CachedDocument} or null if it is not cached
+   */
+  public CachedDocument getIfPresent(Object key, long version) {
+    return cache.getIfPresent(new VersionedKey(checkNotNull(key), version));
+  }
+
+  /**
+   * Discards the {@link CachedDocument} of given key and version.
+   * 
+   * @param key
+   *          a key of the document
+   * @param version
+   *          the version of the document
+   */
+  public void invalidate(Object key, long version) {
+    cache.invalidate(new VersionedKey(checkNotNull(key), version));
+  }
+
+  /**
+   * Discards all {@link CachedDocument}s.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+    digests.invalidateAll();
+  }
+
+  /**
+   * Returns the approximate number of {@link CachedDocument}s.
+   * 
+   * @return the number of {@link CachedDocument}s
+   */
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Returns the hit, miss, load and eviction statistics of this cache.
+   * 
+   * @return {@link CacheStats}
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private CachedDocument getByContent(final StreamingJsonable<?> document,
+      boolean frozen) {
+    checkNotNull(document);
+    HashCode digest = frozen ? digests.getIfPresent(document) : null;
+    if (digest != null) {
+      // Frozen documents can't change, so they are serialized only on a miss
+      return load(digest, new Callable<CachedDocument>() {
+
+        @Override
+        public CachedDocument call() {
+          return new CachedDocument(document.toJsonBytes());
+        }
+
+      });
+    }
+
+    final byte[] bytes = document.toJsonBytes();
+    digest = CONTENT_HASH.hashBytes(bytes);
+    if (frozen) digests.put(document, digest);
+    return load(digest, new Callable<CachedDocument>() {
+
+      @Override
+      public CachedDocument call() {
+        return new CachedDocument(bytes);
+      }
+
+    });
+  }
+
+  private CachedDocument load(Object key, Callable<CachedDocument> loader) {
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("size", cache.size())
+        .add("stats", cache.stats()).toString();
+  }
+
+  private static final class VersionedKey {
+
+    private final Object key;
+
+    private final long version;
+
+    private VersionedKey(Object key, long version) {
+      this.key = key;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (this == other) return true;
+      if (!(other instanceof VersionedKey)) return false;
+      VersionedKey castOther = (VersionedKey) other;
+      return version == castOther.version && key.equals(castOther.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(key, version);
+    }
+
+  }
+
+}
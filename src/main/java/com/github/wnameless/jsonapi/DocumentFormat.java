@@ -0,0 +1,175 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Splitter;
+
+/**
+ * 
+ * {@link DocumentFormat} is the encoding of JSON API documents on the wire.
+ * Besides the standard JSON text, documents can be encoded in Jackson Smile,
+ * a binary JSON which keeps exactly the same document model but is smaller
+ * and cheaper to write and to parse. It is meant for traffic between services
+ * which both use Japison and is negotiated through
+ * {@link JsonApi#SMILE_MEDIA_TYPE}.
+ *
+ */
+public enum DocumentFormat {
+
+  /**
+   * JSON text, application/vnd.api+json.
+   */
+  JSON(JsonApi.MEDIA_TYPE),
+
+  /**
+   * Jackson Smile binary JSON, application/vnd.api+smile.
+   */
+  SMILE(JsonApi.SMILE_MEDIA_TYPE);
+
+  private static final Splitter LIST_SPLITTER =
+      Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private static final Splitter PARAM_SPLITTER =
+      Splitter.on(';').trimResults();
+
+  private final String mediaType;
+
+  private DocumentFormat(String mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  /**
+   * Returns the media type of this format.
+   * 
+   * @return a media type
+   */
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Returns the {@link DocumentFormat} of a Content-Type header. Media type
+   * parameters are ignored.
+   * 
+   * @param contentType
+   *          a media type
+   * @return a {@link DocumentFormat}, or null if the media type is not
+   *         supported
+   */
+  public static DocumentFormat fromMediaType(String contentType) {
+    if (contentType == null) return null;
+    String type = baseType(contentType);
+    for (DocumentFormat format : values()) {
+      if (format.mediaType.equals(type)) return format;
+    }
+    return null;
+  }
+
+  /**
+   * Chooses the {@link DocumentFormat} of a response by an Accept header. The
+   * format with the highest quality wins, JSON wins a tie. A missing header or
+   * a wildcard media range selects JSON.
+   * 
+   * @param accept
+   *          an Accept header, can be null
+   * @return a {@link DocumentFormat}, or null if no format is acceptable
+   */
+  public static DocumentFormat negotiate(String accept) {
+    if (accept == null || accept.trim().isEmpty()) return JSON;
+
+    DocumentFormat best = null;
+    float bestQuality = 0;
+    for (String range : LIST_SPLITTER.split(accept)) {
+      String type = baseType(range);
+      DocumentFormat format = fromMediaType(type);
+      if (format == null
+          && (type.equals("*/*") || type.equals("application/*"))) {
+        format = JSON;
+      }
+      if (format == null) continue;
+
+      float quality = quality(range);
+      if (quality > bestQuality
+          || (quality == bestQuality && quality > 0 && format == JSON)) {
+        best = format;
+        bestQuality = quality;
+      }
+    }
+    return best;
+  }
+
+  private static String baseType(String mediaRange) {
+    int semicolon = mediaRange.indexOf(';');
+    String type = semicolon < 0 ? mediaRange
+        : mediaRange.substring(0, semicolon);
+    return type.trim().toLowerCase(Locale.ENGLISH);
+  }
+
+  private static float quality(String mediaRange) {
+    for (String param : PARAM_SPLITTER.split(mediaRange)) {
+      if (param.startsWith("q=") || param.startsWith("Q=")) {
+        try {
+          return Float.parseFloat(param.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * Returns the encoded bytes of given document or object.
+   * 
+   * @param value
+   *          a document or any JSON API object
+   * @return encoded bytes
+   */
+  public byte[] toBytes(Object value) {
+    byte[] bytes = null;
+    try {
+      bytes = ObjectMapperFactory.getSnapshot().forFormat(this)
+          .getObjectWriter(value.getClass()).writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes given document or object into an {@link OutputStream}. The stream
+   * is flushed but not closed.
+   * 
+   * @param value
+   *          a document or any JSON API object
+   * @param out
+   *          an {@link OutputStream}
+   * @throws IOException
+   *           if the document can't be written
+   */
+  public void writeTo(Object value, OutputStream out) throws IOException {
+    ObjectMapperFactory.getSnapshot().forFormat(this)
+        .getObjectWriter(value.getClass()).writeValue(out, value);
+  }
+
+}
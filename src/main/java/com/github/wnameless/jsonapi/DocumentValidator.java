@@ -0,0 +1,40 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.util.List;
+
+/**
+ * 
+ * {@link DocumentValidator} validates JSON API documents. Problems are reported
+ * as {@link ErrorObject}s whose source pointers locate the offending members,
+ * so they can be returned to the client in an {@link ErrorsDocument} as is.
+ *
+ */
+public interface DocumentValidator {
+
+  /**
+   * Validates a document.
+   * 
+   * @param document
+   *          a {@link Document}
+   * @return {@link ErrorObject}s, empty if the document is valid
+   */
+  List<ErrorObject> validate(Document<?> document);
+
+}
@@ -0,0 +1,190 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.charset.Charset;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * 
+ * {@link ETags} computes strong entity tags of JSON API documents and
+ * matches them against the If-None-Match header of conditional requests.<br>
+ * <br>
+ * An entity tag is either computed from the serialized bytes of a document,
+ * or incrementally from the (type, id, version) tuples of its resources by a
+ * {@link Builder}. The latter doesn't need the document to be built or
+ * serialized at all, but it is only a strong entity tag if the resources
+ * and their versions fully determine the response. Anything else which
+ * changes the response, such as sparse fieldsets or include paths, has to be
+ * added to the {@link Builder} as well.
+ *
+ */
+public final class ETags {
+
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  private static final Charset UTF_8 = Charsets.UTF_8;
+
+  private ETags() {}
+
+  /**
+   * Returns a strong entity tag of given serialized bytes.
+   * 
+   * @param bytes
+   *          serialized bytes
+   * @return a quoted strong entity tag
+   */
+  public static String of(byte[] bytes) {
+    return quote(HASH.hashBytes(bytes).toString());
+  }
+
+  /**
+   * Returns a {@link Builder} which computes an entity tag incrementally.
+   * 
+   * @return a {@link Builder}
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Checks if an If-None-Match header value matches given entity tag. The
+   * header may be "*" or a comma separated list of entity tags, weak ones
+   * included, and they are compared by the weak comparison as the HTTP
+   * specification requires for If-None-Match.
+   * 
+   * @param ifNoneMatch
+   *          the If-None-Match header value, may be null
+   * @param etag
+   *          a quoted entity tag
+   * @return true if the header matches, which means the response can be
+   *         answered with 304 Not Modified, false otherwise
+   */
+  public static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null || etag == null) return false;
+    String opaque = opaqueTag(etag, 0, etag.length());
+
+    int length = ifNoneMatch.length();
+    int start = 0;
+    while (start < length) {
+      int end = ifNoneMatch.indexOf(',', start);
+      if (end < 0) end = length;
+      String candidate = opaqueTag(ifNoneMatch, start, end);
+      if (candidate.equals("*") || candidate.equals(opaque)) return true;
+      start = end + 1;
+    }
+    return false;
+  }
+
+  private static String opaqueTag(String tags, int start, int end) {
+    while (start < end && tags.charAt(start) == ' ') start++;
+    while (end > start && tags.charAt(end - 1) == ' ') end--;
+    if (tags.startsWith("W/", start)) start += 2;
+    return tags.substring(start, end);
+  }
+
+  private static String quote(String tag) {
+    return '"' + tag + '"';
+  }
+
+  /**
+   * 
+   * {@link Builder} computes an entity tag from the (type, id, version)
+   * tuples of resources and any other inputs of a response. The order of
+   * inputs matters, so resources have to be added in the order they appear
+   * in the document. A {@link Builder} is not thread-safe.
+   *
+   */
+  public static final class Builder {
+
+    private final Hasher hasher = HASH.newHasher();
+
+    private Builder() {}
+
+    /**
+     * Adds the (type, id, version) tuple of a resource.
+     * 
+     * @param type
+     *          the type of resource
+     * @param id
+     *          the id of resource
+     * @param version
+     *          the version of resource
+     * @return this {@link Builder}
+     */
+    public Builder add(String type, String id, long version) {
+      putString(checkNotNull(type));
+      putString(checkNotNull(id));
+      hasher.putLong(version);
+      return this;
+    }
+
+    /**
+     * Adds the (type, id, version) tuple of a {@link ResourceObject}.
+     * 
+     * @param resource
+     *          a {@link ResourceObject}
+     * @param version
+     *          the version of resource
+     * @return this {@link Builder}
+     */
+    public Builder add(ResourceObject<?> resource, long version) {
+      return add(resource.getType(), resource.getId(), version);
+    }
+
+    /**
+     * Adds any other input which changes the response, ex: a query string.
+     * 
+     * @param value
+     *          an input of the response, may be null
+     * @return this {@link Builder}
+     */
+    public Builder add(String value) {
+      if (value == null) {
+        hasher.putInt(-1);
+      } else {
+        putString(value);
+      }
+      return this;
+    }
+
+    private void putString(String value) {
+      // Length prefixed, so ("ab", "c") and ("a", "bc") never collide
+      hasher.putInt(value.length());
+      hasher.putString(value, UTF_8);
+    }
+
+    /**
+     * Returns the entity tag of all added inputs. A {@link Builder} can't be
+     * used any more after this call.
+     * 
+     * @return a quoted strong entity tag
+     */
+    public String build() {
+      return quote(hasher.hash().toString());
+    }
+
+  }
+
+}
@@ -19,14 +19,23 @@ package com.github.wnameless.jsonapi;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Collections.emptyMap;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Map;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -40,12 +49,13 @@ import com.google.common.base.Objects;
  *
  */
 @JsonInclude(NON_DEFAULT)
-public class ErrorObject implements Jsonable<ErrorObject> {
+public class ErrorObject implements StreamingJsonable<ErrorObject> {
 
   private String id;
 
+  @JsonProperty
   @Valid
-  private Map<String, LinkObject> links = newLinkedHashMap();
+  private Map<String, LinkObject> links = emptyMap();
 
   private String status;
 
@@ -93,10 +103,14 @@ public class ErrorObject implements Jsonable<ErrorObject> {
 
   /**
    * Returns a map of link names and {@link LinkObject}s.
+   * The map is allocated on the first call, which writes this object, so
+   * don't call it while other threads read or serialize the same object.
    * 
    * @return a map of link names and {@link LinkObject}s.
    */
+  @JsonIgnore
   public Map<String, LinkObject> getLinks() {
+    if (links == Collections.EMPTY_MAP) links = newLinkedHashMap();
     return links;
   }
 
@@ -323,6 +337,16 @@ public class ErrorObject implements Jsonable<ErrorObject> {
     return this;
   }
 
+  /**
+   * Returns a frozen copy of this {@link ErrorObject} whose links and source
+   * are frozen as well.
+   * 
+   * @return a frozen {@link ErrorObject}
+   */
+  public ErrorObject freeze() {
+    return new Frozen(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
@@ -356,11 +380,127 @@ public class ErrorObject implements Jsonable<ErrorObject> {
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link ErrorObject} which can't be modified.
+   *
+   */
+  private static final class Frozen extends ErrorObject {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(ErrorObject source) {
+      ErrorObject self = this;
+      self.id = source.id;
+      self.links = FrozenCollections.links(source.links);
+      self.status = source.status;
+      self.code = source.code;
+      self.title = source.title;
+      self.detail = source.detail;
+      self.source = source.source == null ? null : source.source.freeze();
+      self.meta = source.meta;
+    }
+
+    @Override
+    public ErrorObject freeze() {
+      return this;
+    }
+
+    @Override
+    public void setId(String id) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setLinks(Map<String, LinkObject> links) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setStatus(String status) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setCode(String code) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setTitle(String title) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setDetail(String detail) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setSource(SourceObject source) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
@@ -21,15 +21,25 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newLinkedHashMap;
-
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -44,11 +54,12 @@ import com.google.common.base.Objects;
  */
 @JsonInclude(NON_DEFAULT)
 public class ErrorsDocument
-    implements Document<Void>, Jsonable<ErrorsDocument> {
+    implements Document<Void>, StreamingJsonable<ErrorsDocument> {
 
+  @JsonProperty
   @JsonInclude(ALWAYS)
   @Valid
-  private List<ErrorObject> errors = newArrayList();
+  private List<ErrorObject> errors = emptyList();
 
   @Valid
   private Object meta;
@@ -56,11 +67,13 @@ public class ErrorsDocument
   @Valid
   private JsonApiObject jsonapi;
 
+  @JsonProperty
   @Valid
-  private Map<String, LinkObject> links = newLinkedHashMap();
+  private Map<String, LinkObject> links = emptyMap();
 
+  @JsonProperty
   @Valid
-  private List<ResourceObject<?>> included = newArrayList();
+  private List<ResourceObject<?>> included = emptyList();
 
   @Override
   public Void getData() {
@@ -70,8 +83,17 @@ public class ErrorsDocument
   @Override
   public void setData(Void data) {}
 
+  /**
+   * Returns a list of error objects.
+   * The list is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return a list of error objects
+   */
   @Override
+  @JsonIgnore
   public List<ErrorObject> getErrors() {
+    if (errors == Collections.EMPTY_LIST) errors = newArrayList();
     return errors;
   }
 
@@ -136,8 +158,17 @@ public class ErrorsDocument
     return this;
   }
 
+  /**
+   * Returns {@link LinkObject}s related to the primary data.
+   * The map is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return {@link LinkObject}s
+   */
   @Override
+  @JsonIgnore
   public Map<String, LinkObject> getLinks() {
+    if (links == Collections.EMPTY_MAP) links = newLinkedHashMap();
     return links;
   }
 
@@ -158,8 +189,20 @@ public class ErrorsDocument
     return this;
   }
 
+  /**
+   * Returns a list of {@link ResourceObject}s that are related to the primary
+   * data and/or each other.
+   * The list is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return a list of {@link ResourceObject}s
+   */
   @Override
+  @JsonIgnore
   public List<ResourceObject<?>> getIncluded() {
+    if (included == Collections.EMPTY_LIST) {
+      included = new IncludedResources();
+    }
     return included;
   }
 
@@ -180,16 +223,43 @@ public class ErrorsDocument
     return this;
   }
 
+  List<ErrorObject> errorsOrEmpty() {
+    return errors == null ? Collections.<ErrorObject> emptyList() : errors;
+  }
+
+  Map<String, LinkObject> linksOrEmpty() {
+    return links == null ? Collections.<String, LinkObject> emptyMap() : links;
+  }
+
+  List<ResourceObject<?>> includedOrEmpty() {
+    return included == null ? Collections.<ResourceObject<?>> emptyList()
+        : included;
+  }
+
+  static boolean isFrozen(ErrorsDocument document) {
+    return document instanceof Frozen;
+  }
+
+  /**
+   * Returns a frozen snapshot of this document whose errors, links and
+   * included resources are frozen as well.
+   * 
+   * @return a frozen {@link ErrorsDocument}
+   */
+  public ErrorsDocument freeze() {
+    return new Frozen(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
     if (!(other instanceof ErrorsDocument)) return false;
     ErrorsDocument castOther = (ErrorsDocument) other;
-    return Objects.equal(errors, castOther.getErrors())
-        && Objects.equal(meta, castOther.getMeta())
-        && Objects.equal(jsonapi, castOther.getJsonapi())
-        && Objects.equal(links, castOther.getLinks())
-        && Objects.equal(included, castOther.getIncluded());
+    return Objects.equal(errors, castOther.errors)
+        && Objects.equal(meta, castOther.meta)
+        && Objects.equal(jsonapi, castOther.jsonapi)
+        && Objects.equal(links, castOther.links)
+        && Objects.equal(included, castOther.included);
   }
 
   @Override
@@ -208,11 +278,109 @@ public class ErrorsDocument
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
-}
\ No newline at end of file
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link ErrorsDocument} which can't be modified.
+   *
+   */
+  private static final class Frozen extends ErrorsDocument {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(ErrorsDocument source) {
+      ErrorsDocument self = this;
+      self.errors = FrozenCollections.errors(source.errors);
+      self.meta = source.meta;
+      self.jsonapi = source.jsonapi == null ? null : source.jsonapi.freeze();
+      self.links = FrozenCollections.links(source.links);
+      self.included = FrozenCollections.included(source.included);
+    }
+
+    @Override
+    public ErrorsDocument freeze() {
+      return this;
+    }
+
+    @Override
+    public void setErrors(List<ErrorObject> errors) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setJsonapi(JsonApiObject jsonapi) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setLinks(Map<String, LinkObject> links) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setIncluded(List<ResourceObject<?>> included) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
+}
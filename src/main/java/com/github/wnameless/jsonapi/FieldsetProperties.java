@@ -0,0 +1,102 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+/**
+ * 
+ * {@link FieldsetProperties} caches the properties of attribute classes which
+ * are selected by {@link SparseFieldsets}, keyed by the attribute class and
+ * the set of fields. Each {@link ObjectMapperSnapshot} owns one and attaches
+ * it to its writers, so the properties are resolved once per snapshot rather
+ * than once per request. Fieldsets come from query parameters, so the cache
+ * is bounded.
+ *
+ */
+final class FieldsetProperties {
+
+  private static final long MAX_ENTRIES = 4096;
+
+  private final Cache<Map.Entry<Class<?>, Set<String>>, List<PropertyWriter>> properties =
+      CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+  /**
+   * Returns the properties of given attribute serializer which are selected by
+   * given fields. They are cached if the writer of given provider comes from
+   * an {@link ObjectMapperSnapshot}.
+   * 
+   * @param provider
+   *          a {@link SerializerProvider}
+   * @param attributeClass
+   *          the class of attributes
+   * @param serializer
+   *          the {@link JsonSerializer} of given attribute class
+   * @param fields
+   *          names of attributes and relationships
+   * @return selected properties, or null if the serializer doesn't expose its
+   *         properties
+   */
+  static List<PropertyWriter> find(SerializerProvider provider,
+      Class<?> attributeClass, JsonSerializer<?> serializer,
+      Set<String> fields) {
+    FieldsetProperties cache = (FieldsetProperties) provider
+        .getAttribute(FieldsetProperties.class);
+    return cache == null ? select(serializer, fields)
+        : cache.get(attributeClass, serializer, fields);
+  }
+
+  private List<PropertyWriter> get(Class<?> attributeClass,
+      JsonSerializer<?> serializer, Set<String> fields) {
+    Map.Entry<Class<?>, Set<String>> key =
+        Maps.<Class<?>, Set<String>> immutableEntry(attributeClass, fields);
+    List<PropertyWriter> selected = properties.getIfPresent(key);
+    if (selected == null) {
+      selected = select(serializer, fields);
+      if (selected != null) properties.put(key, selected);
+    }
+    return selected;
+  }
+
+  private static List<PropertyWriter> select(JsonSerializer<?> serializer,
+      Set<String> fields) {
+    Iterator<PropertyWriter> iter = serializer.properties();
+    if (!iter.hasNext()) return null;
+
+    List<PropertyWriter> selected = newArrayList();
+    while (iter.hasNext()) {
+      PropertyWriter property = iter.next();
+      if (fields.contains(property.getName())) selected.add(property);
+    }
+    return Collections.unmodifiableList(selected);
+  }
+
+}
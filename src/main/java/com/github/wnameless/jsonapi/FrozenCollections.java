@@ -0,0 +1,228 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.google.common.collect.ForwardingMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * 
+ * {@link FrozenCollections} builds the unmodifiable collections of frozen
+ * JSON API objects. Elements are frozen as well, and elements which are
+ * already frozen are shared as they are. Null collections and null elements
+ * are kept.<br>
+ * <br>
+ * Collections are shared instead of copied whenever possible. Empty ones,
+ * including the lazily replaced empty ones of modifiable objects, become the
+ * shared immutable empty collections. Collections built here, and Guava
+ * immutable collections whose elements are all frozen already, are reused as
+ * they are.<br>
+ * <br>
+ * Frozen objects are private subclasses which fill the non-final fields of
+ * their parent class, so they have to be published safely like any other
+ * mutable-looking object. Their hash code is cached in a plain int field
+ * without synchronization. Threads racing on it may compute the hash more
+ * than once, but always get the same value, because it is derived from state
+ * which never changes after publication.
+ *
+ */
+final class FrozenCollections {
+
+  private static final Freezer<LinkObject> LINK = new Freezer<LinkObject>() {
+
+    @Override
+    LinkObject freeze(LinkObject link) {
+      return link.freeze();
+    }
+
+  };
+
+  private static final Freezer<RelationshipObject<?>> RELATIONSHIP =
+      new Freezer<RelationshipObject<?>>() {
+
+        @Override
+        RelationshipObject<?> freeze(RelationshipObject<?> relationship) {
+          return relationship.freeze();
+        }
+
+      };
+
+  @SuppressWarnings("rawtypes")
+  private static final Freezer<ResourceObject> RESOURCE =
+      new Freezer<ResourceObject>() {
+
+        @Override
+        ResourceObject freeze(ResourceObject resource) {
+          return resource.freeze();
+        }
+
+      };
+
+  private static final Freezer<ResourceIdentifierObject> IDENTIFIER =
+      new Freezer<ResourceIdentifierObject>() {
+
+        @Override
+        ResourceIdentifierObject freeze(ResourceIdentifierObject identifier) {
+          return identifier.freeze();
+        }
+
+      };
+
+  private static final Freezer<ErrorObject> ERROR = new Freezer<ErrorObject>() {
+
+    @Override
+    ErrorObject freeze(ErrorObject error) {
+      return error.freeze();
+    }
+
+  };
+
+  private FrozenCollections() {}
+
+  static UnsupportedOperationException immutable(Object frozen) {
+    return new UnsupportedOperationException(
+        "Frozen " + frozen.getClass().getSuperclass().getSimpleName()
+            + " is immutable");
+  }
+
+  static Map<String, LinkObject> links(Map<String, LinkObject> links) {
+    return freeze(links, LINK);
+  }
+
+  static Map<String, RelationshipObject<?>> relationships(
+      Map<String, RelationshipObject<?>> relationships) {
+    return freeze(relationships, RELATIONSHIP);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static <T> List<ResourceObject<T>> data(List<ResourceObject<T>> data) {
+    return (List) freeze((List) data, RESOURCE);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static List<ResourceObject<?>> included(List<ResourceObject<?>> included) {
+    return (List) freeze((List) included, RESOURCE);
+  }
+
+  static List<ResourceIdentifierObject> identifiers(
+      List<ResourceIdentifierObject> identifiers) {
+    return freeze(identifiers, IDENTIFIER);
+  }
+
+  static List<ErrorObject> errors(List<ErrorObject> errors) {
+    return freeze(errors, ERROR);
+  }
+
+  private static <V> Map<String, V> freeze(Map<String, V> map,
+      Freezer<V> freezer) {
+    if (map == null) return null;
+    if (map.isEmpty()) return ImmutableMap.of();
+    if (map instanceof FrozenMap) return map;
+
+    boolean shareable = map instanceof ImmutableMap;
+    Map<String, V> frozen = newLinkedHashMap();
+    for (Map.Entry<String, V> entry : map.entrySet()) {
+      V value = entry.getValue();
+      V frozenValue = value == null ? null : freezer.freeze(value);
+      shareable &= frozenValue == value;
+      frozen.put(entry.getKey(), frozenValue);
+    }
+    return shareable ? map : new FrozenMap<V>(frozen);
+  }
+
+  private static <E> List<E> freeze(List<E> list, Freezer<E> freezer) {
+    if (list == null) return null;
+    if (list.isEmpty()) return ImmutableList.of();
+    if (list instanceof FrozenList) return list;
+
+    boolean shareable = list instanceof ImmutableList;
+    Object[] frozen = new Object[list.size()];
+    int i = 0;
+    for (E element : list) {
+      E frozenElement = element == null ? null : freezer.freeze(element);
+      shareable &= frozenElement == element;
+      frozen[i++] = frozenElement;
+    }
+    return shareable ? list : new FrozenList<E>(frozen);
+  }
+
+  private abstract static class Freezer<E> {
+
+    abstract E freeze(E element);
+
+  }
+
+  /**
+   * 
+   * {@link FrozenList} is an unmodifiable list of frozen elements backed by an
+   * array which is never exposed.
+   *
+   */
+  private static final class FrozenList<E> extends AbstractList<E>
+      implements RandomAccess {
+
+    private final Object[] elements;
+
+    private FrozenList(Object[] elements) {
+      this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+      return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+      return elements.length;
+    }
+
+  }
+
+  /**
+   * 
+   * {@link FrozenMap} is an unmodifiable map of frozen values backed by a map
+   * which is never exposed.
+   *
+   */
+  private static final class FrozenMap<V> extends ForwardingMap<String, V> {
+
+    private final Map<String, V> delegate;
+
+    private FrozenMap(Map<String, V> map) {
+      delegate = Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    protected Map<String, V> delegate() {
+      return delegate;
+    }
+
+  }
+
+}
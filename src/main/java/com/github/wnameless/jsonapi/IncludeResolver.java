@@ -0,0 +1,299 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Splitter;
+
+/**
+ * 
+ * {@link IncludeResolver} builds compound documents from include paths like
+ * author,comments.author. Starting from the primary data, the relationships
+ * named by the paths are followed level by level. Related resources which are
+ * not in the document yet are fetched by a {@link BatchLoader} with one call
+ * per type on each level and then included exactly once.<br>
+ * <br>
+ * A {@link IncludeResolver} is immutable, so it can be parsed once and shared
+ * among threads.
+ * 
+ * @see <a href="http://jsonapi.org/format/#fetching-includes">JSON API
+ *      Specification (v1.0) Inclusion of Related Resources</a>
+ *
+ */
+public final class IncludeResolver {
+
+  private static final Splitter PATH_SPLITTER =
+      Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private static final Splitter NAME_SPLITTER = Splitter.on('.');
+
+  private final Node root = new Node();
+
+  private final List<String> paths = newArrayList();
+
+  private IncludeResolver() {}
+
+  /**
+   * Parses comma-separated include paths, ex: the value of the include query
+   * parameter.
+   * 
+   * @param include
+   *          comma-separated include paths, can be null
+   * @return a {@link IncludeResolver}
+   * @throws IllegalArgumentException
+   *           if any path contains an empty relationship name
+   */
+  public static IncludeResolver parse(String include) {
+    if (include == null) return parse(Collections.<String> emptyList());
+    return parse(PATH_SPLITTER.split(include));
+  }
+
+  /**
+   * Parses include paths, each path is a dot-separated list of relationship
+   * names.
+   * 
+   * @param paths
+   *          include paths
+   * @return a {@link IncludeResolver}
+   * @throws IllegalArgumentException
+   *           if any path contains an empty relationship name
+   */
+  public static IncludeResolver parse(Iterable<String> paths) {
+    IncludeResolver resolver = new IncludeResolver();
+    for (String path : paths) {
+      Node node = resolver.root;
+      for (String name : NAME_SPLITTER.split(path)) {
+        if (name.isEmpty()) {
+          throw new IllegalArgumentException("Invalid include path: " + path);
+        }
+        Node child = node.children.get(name);
+        if (child == null) {
+          child = new Node();
+          node.children.put(name, child);
+        }
+        node = child;
+      }
+      resolver.paths.add(path);
+    }
+    return resolver;
+  }
+
+  /**
+   * Returns the include paths.
+   * 
+   * @return include paths
+   */
+  public List<String> getPaths() {
+    return Collections.unmodifiableList(paths);
+  }
+
+  /**
+   * Includes all resources which are reachable from the primary data through
+   * the include paths.
+   * 
+   * @param document
+   *          a {@link ResourceDocument}
+   * @param loader
+   *          a {@link BatchLoader}
+   * @return given {@link ResourceDocument}
+   */
+  public <T> ResourceDocument<T> resolve(final ResourceDocument<T> document,
+      BatchLoader loader) {
+    List<ResourceObject<?>> primary = newArrayList();
+    if (document.getData() != null) primary.add(document.getData());
+    resolve(primary, document.includedOrEmpty(), loader, new Includer() {
+
+      @Override
+      void include(ResourceObject<?> resource) {
+        document.include(resource);
+      }
+
+    });
+    return document;
+  }
+
+  /**
+   * Includes all resources which are reachable from the primary data through
+   * the include paths.
+   * 
+   * @param document
+   *          a {@link ResourcesDocument}
+   * @param loader
+   *          a {@link BatchLoader}
+   * @return given {@link ResourcesDocument}
+   */
+  public <T> ResourcesDocument<T> resolve(final ResourcesDocument<T> document,
+      BatchLoader loader) {
+    List<ResourceObject<?>> primary = newArrayList();
+    primary.addAll(document.dataOrEmpty());
+    resolve(primary, document.includedOrEmpty(), loader, new Includer() {
+
+      @Override
+      void include(ResourceObject<?> resource) {
+        document.include(resource);
+      }
+
+    });
+    return document;
+  }
+
+  private void resolve(List<ResourceObject<?>> primary,
+      List<ResourceObject<?>> included, BatchLoader loader,
+      Includer includer) {
+    checkNotNull(loader);
+    if (root.children.isEmpty()) return;
+
+    Map<ResourceKey, ResourceObject<?>> known = newHashMap();
+    List<Step> frontier = newArrayList();
+    if (included != null) {
+      for (ResourceObject<?> resource : included) {
+        ResourceKey key = ResourceKey.of(resource);
+        if (key != null && !known.containsKey(key)) known.put(key, resource);
+      }
+    }
+    for (ResourceObject<?> resource : primary) {
+      ResourceKey key = ResourceKey.of(resource);
+      if (key != null) known.put(key, resource);
+      frontier.add(new Step(resource, root));
+    }
+
+    Map<ResourceKey, Set<Node>> visited = newHashMap();
+    while (!frontier.isEmpty()) {
+      List<Step> next = newArrayList();
+      Map<String, Set<String>> pending = newLinkedHashMap();
+      Map<ResourceKey, List<Node>> waiting = newHashMap();
+
+      for (Step step : frontier) {
+        Map<String, RelationshipObject<?>> relationships =
+            step.resource.relationshipsOrEmpty();
+        for (Map.Entry<String, Node> entry : step.node.children.entrySet()) {
+          RelationshipObject<?> relationship =
+              relationships.get(entry.getKey());
+          if (relationship == null) continue;
+
+          Node child = entry.getValue();
+          for (ResourceKey key : linkage(relationship)) {
+            if (!visit(visited, key, child)) continue;
+
+            ResourceObject<?> target = known.get(key);
+            if (target != null) {
+              if (!child.children.isEmpty()) next.add(new Step(target, child));
+              continue;
+            }
+            Set<String> ids = pending.get(key.getType());
+            if (ids == null) {
+              ids = newLinkedHashSet();
+              pending.put(key.getType(), ids);
+            }
+            ids.add(key.getId());
+            List<Node> nodes = waiting.get(key);
+            if (nodes == null) {
+              nodes = newArrayList();
+              waiting.put(key, nodes);
+            }
+            nodes.add(child);
+          }
+        }
+      }
+
+      for (Map.Entry<String, Set<String>> entry : pending.entrySet()) {
+        Iterable<? extends ResourceObject<?>> resources = loader.load(
+            entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+        if (resources == null) continue;
+
+        for (ResourceObject<?> resource : resources) {
+          ResourceKey key = ResourceKey.of(resource);
+          if (key == null || known.containsKey(key)) continue;
+
+          includer.include(resource);
+          known.put(key, resource);
+          List<Node> nodes = waiting.remove(key);
+          if (nodes == null) continue;
+          for (Node node : nodes) {
+            if (!node.children.isEmpty()) next.add(new Step(resource, node));
+          }
+        }
+      }
+      frontier = next;
+    }
+  }
+
+  private static boolean visit(Map<ResourceKey, Set<Node>> visited,
+      ResourceKey key, Node node) {
+    Set<Node> nodes = visited.get(key);
+    if (nodes == null) {
+      nodes = newHashSet();
+      visited.put(key, nodes);
+    }
+    return nodes.add(node);
+  }
+
+  private static List<ResourceKey> linkage(RelationshipObject<?> relationship) {
+    List<ResourceIdentifierObject> linkage = relationship.getLinkage();
+    List<ResourceKey> keys = newArrayListWithCapacity(linkage.size());
+    for (ResourceIdentifierObject identifier : linkage) {
+      ResourceKey key =
+          ResourceKey.of(identifier.getType(), identifier.getId());
+      if (key != null) keys.add(key);
+    }
+    return keys;
+  }
+
+  @Override
+  public String toString() {
+    return paths.toString();
+  }
+
+  private static final class Node {
+
+    private final Map<String, Node> children = newLinkedHashMap();
+
+  }
+
+  private static final class Step {
+
+    private final ResourceObject<?> resource;
+
+    private final Node node;
+
+    private Step(ResourceObject<?> resource, Node node) {
+      this.resource = resource;
+      this.node = node;
+    }
+
+  }
+
+  private static abstract class Includer {
+
+    abstract void include(ResourceObject<?> resource);
+
+  }
+
+}
@@ -0,0 +1,325 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 
+ * {@link IncludedResources} is a list of included {@link ResourceObject}s of a
+ * compound document which keeps every resource only once. Resources are keyed
+ * by their (type, id) pair, so inserting and looking up a resource takes
+ * constant time. Including a resource which is already included merges it
+ * into the existing one instead of appending a duplicate. Resources of the
+ * primary data can be excluded, so they never show up in the included
+ * list.<br>
+ * <br>
+ * The {@link List} methods keep their contract, so {@link #add} always appends
+ * and throws IllegalArgumentException instead if the resource is already
+ * included or excluded. Use {@link #include} to merge duplicates.<br>
+ * <br>
+ * Resources which miss their type or id can't be identified, so they are
+ * appended as is.
+ * 
+ * @see <a href="http://jsonapi.org/format/#document-compound-documents">JSON
+ *      API Specification (v1.0) Compound Documents</a>
+ *
+ */
+public final class IncludedResources extends AbstractList<ResourceObject<?>> {
+
+  private final List<ResourceObject<?>> resources;
+
+  private final Map<ResourceKey, ResourceObject<?>> index;
+
+  private final Set<ResourceKey> excluded = newHashSet();
+
+  private List<?> primaryData;
+
+  private int primarySize;
+
+  /**
+   * Creates an empty {@link IncludedResources}.
+   */
+  public IncludedResources() {
+    resources = newArrayList();
+    index = newHashMap();
+  }
+
+  /**
+   * Creates a {@link IncludedResources} which contains given resources without
+   * duplicates.
+   * 
+   * @param resources
+   *          a collection of {@link ResourceObject}s
+   */
+  public IncludedResources(Collection<? extends ResourceObject<?>> resources) {
+    this.resources = newArrayList();
+    index = newHashMap();
+    for (ResourceObject<?> resource : resources) {
+      include(resource);
+    }
+  }
+
+  @Override
+  public ResourceObject<?> get(int index) {
+    return resources.get(index);
+  }
+
+  @Override
+  public int size() {
+    return resources.size();
+  }
+
+  /**
+   * Includes a {@link ResourceObject} unless it is excluded. If a resource
+   * with the same type and id is already included, the attributes and meta it
+   * misses and the relationships and links it doesn't have yet are merged
+   * from given resource. A modifiable resource is updated in place, while a
+   * frozen one is replaced by a frozen merged copy.
+   * 
+   * @param resource
+   *          a {@link ResourceObject}
+   * @return true if the resource is appended, false if it is merged or
+   *         excluded
+   */
+  public boolean include(ResourceObject<?> resource) {
+    ResourceKey key = ResourceKey.of(resource);
+    if (key != null) {
+      if (excluded.contains(key)) return false;
+      ResourceObject<?> existing = index.get(key);
+      if (existing != null) {
+        merge(key, existing, resource);
+        return false;
+      }
+      index.put(key, resource);
+    }
+    resources.add(resource);
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Inserts a {@link ResourceObject} at given position.
+   * 
+   * @param position
+   *          the position to insert at
+   * @param resource
+   *          a {@link ResourceObject}
+   * @throws IllegalArgumentException
+   *           if a resource of the same type and id is already included or
+   *           excluded
+   */
+  @Override
+  public void add(int position, ResourceObject<?> resource) {
+    ResourceKey key = ResourceKey.of(resource);
+    if (key != null) {
+      checkAbsent(key);
+      index.put(key, resource);
+    }
+    resources.add(position, resource);
+    modCount++;
+  }
+
+  private void checkAbsent(ResourceKey key) {
+    if (excluded.contains(key) || index.containsKey(key)) {
+      throw new IllegalArgumentException(
+          "Resource " + key + " is already included or excluded");
+    }
+  }
+
+  @Override
+  public ResourceObject<?> set(int position, ResourceObject<?> resource) {
+    ResourceKey key = ResourceKey.of(resource);
+    ResourceKey oldKey = ResourceKey.of(resources.get(position));
+    if (key != null && !key.equals(oldKey)) checkAbsent(key);
+    if (oldKey != null) index.remove(oldKey);
+    if (key != null) index.put(key, resource);
+    return resources.set(position, resource);
+  }
+
+  @Override
+  public ResourceObject<?> remove(int position) {
+    ResourceObject<?> removed = resources.remove(position);
+    ResourceKey key = ResourceKey.of(removed);
+    if (key != null) index.remove(key);
+    modCount++;
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    resources.clear();
+    index.clear();
+    modCount++;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (o instanceof ResourceObject) {
+      ResourceKey key = ResourceKey.of((ResourceObject<?>) o);
+      if (key != null) return o.equals(index.get(key));
+    }
+    return super.contains(o);
+  }
+
+  /**
+   * Checks if a resource of given type and id is included.
+   * 
+   * @param type
+   *          the type of resource
+   * @param id
+   *          the id of resource
+   * @return true if the resource is included, false otherwise
+   */
+  public boolean contains(String type, String id) {
+    ResourceKey key = ResourceKey.of(type, id);
+    return key != null && index.containsKey(key);
+  }
+
+  /**
+   * Returns the included resource of given type and id.
+   * 
+   * @param type
+   *          the type of resource
+   * @param id
+   *          the id of resource
+   * @return a {@link ResourceObject} or null if it's not included
+   */
+  public ResourceObject<?> get(String type, String id) {
+    ResourceKey key = ResourceKey.of(type, id);
+    return key == null ? null : index.get(key);
+  }
+
+  /**
+   * Excludes the resource of given type and id. It is removed if it is
+   * already included and it will never be added afterward.
+   * 
+   * @param type
+   *          the type of resource
+   * @param id
+   *          the id of resource
+   */
+  public void exclude(String type, String id) {
+    exclude(ResourceKey.of(type, id));
+  }
+
+  /**
+   * Excludes all given resources, ex: the primary data of a document.
+   * 
+   * @param primaryData
+   *          resources to be excluded
+   */
+  public void excludeAll(Iterable<? extends ResourceObject<?>> primaryData) {
+    for (ResourceObject<?> resource : primaryData) {
+      exclude(ResourceKey.of(resource));
+    }
+  }
+
+  /**
+   * Excludes all resources of given primary data. The primary data is
+   * remembered, so only resources appended to it since the last call are
+   * processed when it is called again with the same list.
+   * 
+   * @param data
+   *          the primary data of a document
+   */
+  void excludePrimaryData(List<? extends ResourceObject<?>> data) {
+    if (data != primaryData || data.size() < primarySize) {
+      primaryData = data;
+      primarySize = 0;
+    }
+    for (int i = primarySize; i < data.size(); i++) {
+      exclude(ResourceKey.of(data.get(i)));
+    }
+    primarySize = data.size();
+  }
+
+  private void exclude(ResourceKey key) {
+    if (key == null || !excluded.add(key)) return;
+    ResourceObject<?> existing = index.remove(key);
+    if (existing != null) {
+      resources.remove(indexOf(existing));
+      modCount++;
+    }
+  }
+
+  private int indexOf(ResourceObject<?> resource) {
+    // Looks the resource up by identity, equals may be deep and costly
+    for (int i = resources.size() - 1; i >= 0; i--) {
+      if (resources.get(i) == resource) return i;
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void merge(ResourceKey key, ResourceObject<?> target,
+      ResourceObject<?> source) {
+    if (target == source || !isMergeable(target, source)) return;
+
+    boolean frozen = ResourceObject.isFrozen(target);
+    ResourceObject<Object> merged =
+        (ResourceObject<Object>) (frozen ? target.mutableCopy() : target);
+    if (merged.getAttributes() == null && source.getAttributes() != null) {
+      merged.setAttributes(source.getAttributes());
+    }
+    if (merged.getMeta() == null && source.getMeta() != null) {
+      merged.setMeta(source.getMeta());
+    }
+    for (Map.Entry<String, RelationshipObject<?>> entry : source
+        .relationshipsOrEmpty().entrySet()) {
+      if (!merged.relationshipsOrEmpty().containsKey(entry.getKey())) {
+        merged.getRelationships().put(entry.getKey(), entry.getValue());
+      }
+    }
+    for (Map.Entry<String, LinkObject> entry : source.linksOrEmpty()
+        .entrySet()) {
+      if (!merged.linksOrEmpty().containsKey(entry.getKey())) {
+        merged.getLinks().put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    if (frozen) {
+      ResourceObject<?> refrozen = merged.freeze();
+      resources.set(indexOf(target), refrozen);
+      index.put(key, refrozen);
+    }
+  }
+
+  private static boolean isMergeable(ResourceObject<?> target,
+      ResourceObject<?> source) {
+    if (target.getAttributes() == null && source.getAttributes() != null) {
+      return true;
+    }
+    if (target.getMeta() == null && source.getMeta() != null) return true;
+    if (!target.relationshipsOrEmpty().keySet()
+        .containsAll(source.relationshipsOrEmpty().keySet())) {
+      return true;
+    }
+    return !target.linksOrEmpty().keySet()
+        .containsAll(source.linksOrEmpty().keySet());
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * 
+ * {@link InvalidDocumentException} is thrown when a document violates the
+ * structural rules of JSON API while it is being read. The offending location
+ * is reported by the {@link SourceObject} of {@link #getError}, ex:
+ * /data/3/type, so the {@link ErrorObject} can be returned to the client as
+ * is.
+ *
+ */
+public class InvalidDocumentException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ErrorObject error;
+
+  /**
+   * Creates an {@link InvalidDocumentException}.
+   * 
+   * @param error
+   *          an {@link ErrorObject} which describes the problem
+   */
+  public InvalidDocumentException(ErrorObject error) {
+    super(checkNotNull(error).getDetail() + " at "
+        + (error.getSource() == null ? null : error.getSource().getPointer()));
+    this.error = error;
+  }
+
+  /**
+   * Returns the {@link ErrorObject} which describes the problem.
+   * 
+   * @return an {@link ErrorObject}
+   */
+  public ErrorObject getError() {
+    return error;
+  }
+
+  /**
+   * Returns the JSON pointer of the offending location.
+   * 
+   * @return a JSON pointer
+   */
+  public String getPointer() {
+    return error.getSource() == null ? null : error.getSource().getPointer();
+  }
+
+}
@@ -17,7 +17,19 @@
  */
 package com.github.wnameless.jsonapi;
 
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import com.google.common.base.Function;
+import com.google.common.base.Throwables;
 
 /**
  * 
@@ -29,8 +41,13 @@ public final class JsonApi {
 
   public static final String MEDIA_TYPE = "application/vnd.api+json";
 
+  public static final String SMILE_MEDIA_TYPE = "application/vnd.api+smile";
+
   private JsonApi() {}
 
+  private static final StructuralValidator STRUCTURAL_VALIDATOR =
+      new StructuralValidator();
+
   /**
    * Creates a {@link ResourceDocument}.
    * 
@@ -134,6 +151,83 @@ public final class JsonApi {
     return resourcesDocument(attrList, type, null);
   }
 
+  /**
+   * Creates a {@link ResourcesDocument} by given collection of data attributes
+   * with its type and ids. Resources are built concurrently on the shared
+   * worker pool and the calling thread, in the order of the collection.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param attrList
+   *          a {@link Collection} of data
+   * @param type
+   *          of data
+   * @param idProvider
+   *          function to compute the id of data, it must be thread-safe
+   * @return a {@link ResourcesDocument}
+   */
+  public static <T> ResourcesDocument<T> parallelResourcesDocument(
+      Collection<T> attrList, String type, Function<T, String> idProvider) {
+    return parallelResourcesDocument(attrList, type, idProvider, null);
+  }
+
+  /**
+   * Creates a {@link ResourcesDocument} by given collection of data attributes
+   * with its type and ids. Resources are built concurrently on given
+   * {@link Executor} and the calling thread, in the order of the collection.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param attrList
+   *          a {@link Collection} of data
+   * @param type
+   *          of data
+   * @param idProvider
+   *          function to compute the id of data, it must be thread-safe
+   * @param executor
+   *          a {@link Executor}, or null to use the shared worker pool
+   * @return a {@link ResourcesDocument}
+   */
+  public static <T> ResourcesDocument<T> parallelResourcesDocument(
+      Collection<T> attrList, final String type,
+      final Function<T, String> idProvider, Executor executor) {
+    final Object[] attrs = attrList.toArray();
+    // Pre-sized with nulls, so each chunk fills its own slots in place
+    final List<ResourceObject<T>> data = new ArrayList<ResourceObject<T>>(
+        Collections.<ResourceObject<T>> nCopies(attrs.length, null));
+    int chunkSize = ParallelChunks.chunkSize(attrs.length);
+    if (attrs.length <= chunkSize) {
+      build(attrs, data, type, idProvider, 0, attrs.length);
+    } else {
+      try {
+        ParallelChunks.run(attrs.length, chunkSize, executor,
+            new ParallelChunks.ChunkTask() {
+
+              @Override
+              void run(int chunk, int from, int to) {
+                build(attrs, data, type, idProvider, from, to);
+              }
+
+            });
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    return new ResourcesDocument<T>().withData(data);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void build(Object[] attrs, List<ResourceObject<T>> data,
+      String type, Function<T, String> idProvider, int from, int to) {
+    for (int i = from; i < to; i++) {
+      T attributes = (T) attrs[i];
+      ResourceObject<T> resource = resource(attributes, type);
+      if (idProvider != null) resource.setId(idProvider.apply(attributes));
+      data.set(i, resource);
+    }
+  }
+
   /**
    * Creates a {@link ErrorsDocument}.
    * 
@@ -245,6 +339,49 @@ public final class JsonApi {
     return new RelationshipObject<T>().withData(resource(attributes, type));
   }
 
+  /**
+   * Creates a to-one {@link RelationshipObject} whose resource linkage is given
+   * resource identifier.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param identifier
+   *          a {@link ResourceIdentifierObject}
+   * @return a {@link RelationshipObject}
+   */
+  public static <T> RelationshipObject<T> relationship(
+      ResourceIdentifierObject identifier) {
+    return new RelationshipObject<T>().withIdentifier(identifier);
+  }
+
+  /**
+   * Creates a to-many {@link RelationshipObject} whose resource linkage is
+   * given resource identifiers.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param identifiers
+   *          a list of {@link ResourceIdentifierObject}
+   * @return a {@link RelationshipObject}
+   */
+  public static <T> RelationshipObject<T> relationship(
+      List<ResourceIdentifierObject> identifiers) {
+    return new RelationshipObject<T>().withIdentifiers(identifiers);
+  }
+
+  /**
+   * Creates a {@link ResourceIdentifierObject} by given type and id.
+   * 
+   * @param type
+   *          the type of resource
+   * @param id
+   *          the id of resource
+   * @return a {@link ResourceIdentifierObject}
+   */
+  public static ResourceIdentifierObject identifier(String type, String id) {
+    return new ResourceIdentifierObject().withType(type).withId(id);
+  }
+
   /**
    * Creates a {@link LinkObject}.
    * 
@@ -272,4 +409,427 @@ public final class JsonApi {
     return new JsonApiObject();
   }
 
+  /**
+   * Reads a {@link ResourceDocument} from an {@link InputStream}.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourceDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourceDocument<T> readResourceDocument(InputStream in,
+      Class<T> attributeClass) throws IOException {
+    return ObjectMapperFactory
+        .getObjectReader(ResourceDocument.class, attributeClass).readValue(in);
+  }
+
+  /**
+   * Reads a {@link ResourceDocument} from UTF-8 encoded JSON bytes.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param json
+   *          JSON bytes
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourceDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourceDocument<T> readResourceDocument(byte[] json,
+      Class<T> attributeClass) throws IOException {
+    return ObjectMapperFactory
+        .getObjectReader(ResourceDocument.class, attributeClass)
+        .readValue(json);
+  }
+
+  /**
+   * Reads a {@link ResourceDocument} from a JSON string.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param json
+   *          a JSON string
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourceDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourceDocument<T> readResourceDocument(String json,
+      Class<T> attributeClass) throws IOException {
+    return ObjectMapperFactory
+        .getObjectReader(ResourceDocument.class, attributeClass)
+        .readValue(json);
+  }
+
+  /**
+   * Reads a {@link ResourcesDocument} from an {@link InputStream}.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourcesDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourcesDocument<T> readResourcesDocument(InputStream in,
+      Class<T> attributeClass) throws IOException {
+    return ObjectMapperFactory
+        .getObjectReader(ResourcesDocument.class, attributeClass)
+        .readValue(in);
+  }
+
+  /**
+   * Reads a {@link ResourcesDocument} from UTF-8 encoded JSON bytes.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param json
+   *          JSON bytes
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourcesDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourcesDocument<T> readResourcesDocument(byte[] json,
+      Class<T> attributeClass) throws IOException {
+    return ObjectMapperFactory
+        .getObjectReader(ResourcesDocument.class, attributeClass)
+        .readValue(json);
+  }
+
+  /**
+   * Reads a {@link ResourcesDocument} from a JSON string.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param json
+   *          a JSON string
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourcesDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourcesDocument<T> readResourcesDocument(String json,
+      Class<T> attributeClass) throws IOException {
+    return ObjectMapperFactory
+        .getObjectReader(ResourcesDocument.class, attributeClass)
+        .readValue(json);
+  }
+
+  /**
+   * Reads a {@link ErrorsDocument} from an {@link InputStream}.
+   * 
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @return a {@link ErrorsDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static ErrorsDocument readErrorsDocument(InputStream in)
+      throws IOException {
+    return ObjectMapperFactory.getObjectReader(ErrorsDocument.class)
+        .readValue(in);
+  }
+
+  /**
+   * Reads a {@link ErrorsDocument} from UTF-8 encoded JSON bytes.
+   * 
+   * @param json
+   *          JSON bytes
+   * @return a {@link ErrorsDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static ErrorsDocument readErrorsDocument(byte[] json)
+      throws IOException {
+    return ObjectMapperFactory.getObjectReader(ErrorsDocument.class)
+        .readValue(json);
+  }
+
+  /**
+   * Reads a {@link ErrorsDocument} from a JSON string.
+   * 
+   * @param json
+   *          a JSON string
+   * @return a {@link ErrorsDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static ErrorsDocument readErrorsDocument(String json)
+      throws IOException {
+    return ObjectMapperFactory.getObjectReader(ErrorsDocument.class)
+        .readValue(json);
+  }
+
+  /**
+   * Reads a {@link ResourceDocument} in given {@link DocumentFormat} from
+   * an {@link InputStream}.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param in
+   *          an {@link InputStream}
+   * @param attributeClass
+   *          the class of attributes
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return a {@link ResourceDocument}
+   * @throws IOException
+   *           if the document can't be read
+   */
+  public static <T> ResourceDocument<T> readResourceDocument(InputStream in,
+      Class<T> attributeClass, DocumentFormat format) throws IOException {
+    ObjectMapperSnapshot snapshot =
+        ObjectMapperFactory.getSnapshot().forFormat(format);
+    return snapshot.getObjectReader(
+        snapshot.constructType(ResourceDocument.class, attributeClass))
+        .readValue(in);
+  }
+
+  /**
+   * Reads a {@link ResourceDocument} in given {@link DocumentFormat} from
+   * encoded bytes.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param bytes
+   *          encoded bytes
+   * @param attributeClass
+   *          the class of attributes
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return a {@link ResourceDocument}
+   * @throws IOException
+   *           if the document can't be read
+   */
+  public static <T> ResourceDocument<T> readResourceDocument(byte[] bytes,
+      Class<T> attributeClass, DocumentFormat format) throws IOException {
+    ObjectMapperSnapshot snapshot =
+        ObjectMapperFactory.getSnapshot().forFormat(format);
+    return snapshot.getObjectReader(
+        snapshot.constructType(ResourceDocument.class, attributeClass))
+        .readValue(bytes);
+  }
+
+  /**
+   * Reads a {@link ResourcesDocument} in given {@link DocumentFormat} from
+   * an {@link InputStream}.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param in
+   *          an {@link InputStream}
+   * @param attributeClass
+   *          the class of attributes
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return a {@link ResourcesDocument}
+   * @throws IOException
+   *           if the document can't be read
+   */
+  public static <T> ResourcesDocument<T> readResourcesDocument(InputStream in,
+      Class<T> attributeClass, DocumentFormat format) throws IOException {
+    ObjectMapperSnapshot snapshot =
+        ObjectMapperFactory.getSnapshot().forFormat(format);
+    return snapshot.getObjectReader(
+        snapshot.constructType(ResourcesDocument.class, attributeClass))
+        .readValue(in);
+  }
+
+  /**
+   * Reads a {@link ResourcesDocument} in given {@link DocumentFormat} from
+   * encoded bytes.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param bytes
+   *          encoded bytes
+   * @param attributeClass
+   *          the class of attributes
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return a {@link ResourcesDocument}
+   * @throws IOException
+   *           if the document can't be read
+   */
+  public static <T> ResourcesDocument<T> readResourcesDocument(byte[] bytes,
+      Class<T> attributeClass, DocumentFormat format) throws IOException {
+    ObjectMapperSnapshot snapshot =
+        ObjectMapperFactory.getSnapshot().forFormat(format);
+    return snapshot.getObjectReader(
+        snapshot.constructType(ResourcesDocument.class, attributeClass))
+        .readValue(bytes);
+  }
+
+  /**
+   * Reads a {@link ErrorsDocument} in given {@link DocumentFormat} from
+   * an {@link InputStream}.
+   * 
+   * @param in
+   *          an {@link InputStream}
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return a {@link ErrorsDocument}
+   * @throws IOException
+   *           if the document can't be read
+   */
+  public static ErrorsDocument readErrorsDocument(InputStream in,
+      DocumentFormat format) throws IOException {
+    return ObjectMapperFactory.getSnapshot().forFormat(format)
+        .getObjectReader(ErrorsDocument.class).readValue(in);
+  }
+
+  /**
+   * Reads a {@link ErrorsDocument} in given {@link DocumentFormat} from
+   * encoded bytes.
+   * 
+   * @param bytes
+   *          encoded bytes
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return a {@link ErrorsDocument}
+   * @throws IOException
+   *           if the document can't be read
+   */
+  public static ErrorsDocument readErrorsDocument(byte[] bytes,
+      DocumentFormat format) throws IOException {
+    return ObjectMapperFactory.getSnapshot().forFormat(format)
+        .getObjectReader(ErrorsDocument.class).readValue(bytes);
+  }
+
+  /**
+   * Creates a {@link ResourcesDocumentReader} which pulls {@link ResourceObject}s
+   * of a {@link ResourcesDocument} one at a time from an {@link InputStream}.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourcesDocumentReader}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public static <T> ResourcesDocumentReader<T> resourcesDocumentReader(
+      InputStream in, Class<T> attributeClass) throws IOException {
+    return new ResourcesDocumentReader<T>(in, attributeClass);
+  }
+
+  /**
+   * Reads a {@link ResourcesDocument} from an {@link InputStream} and checks
+   * the structural rules of JSON API while parsing. A malformed document fails
+   * as soon as the offending resource has been read, without parsing the rest
+   * of it.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @param attributeClass
+   *          the class of attributes
+   * @return a {@link ResourcesDocument}
+   * @throws IOException
+   *           if the JSON can't be read
+   * @throws InvalidDocumentException
+   *           if the document violates the structural rules of JSON API
+   */
+  public static <T> ResourcesDocument<T> readValidResourcesDocument(
+      InputStream in, Class<T> attributeClass) throws IOException {
+    ResourcesDocumentReader<T> reader =
+        new ResourcesDocumentReader<T>(in, attributeClass).withValidation(true);
+    try {
+      return reader.readDocument();
+    } catch (RuntimeException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+      throw e;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Creates a {@link ResourcesDocumentWriter} which writes data pulled from an
+   * {@link Iterator} with its type and ids one at a time.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param attrIterator
+   *          an {@link Iterator} of data
+   * @param type
+   *          of data
+   * @param idProvider
+   *          function to compute the id of data
+   * @return a {@link ResourcesDocumentWriter}
+   */
+  public static <T> ResourcesDocumentWriter<T> resourcesDocumentWriter(
+      Iterator<T> attrIterator, String type, Function<T, String> idProvider) {
+    return new ResourcesDocumentWriter<T>(attrIterator, type, idProvider);
+  }
+
+  /**
+   * Creates a {@link ResourcesDocumentWriter} which writes data pulled from an
+   * {@link Iterator} with its type one at a time.
+   * 
+   * @param <T>
+   *          the type of attributes
+   * @param attrIterator
+   *          an {@link Iterator} of data
+   * @param type
+   *          of data
+   * @return a {@link ResourcesDocumentWriter}
+   */
+  public static <T> ResourcesDocumentWriter<T> resourcesDocumentWriter(
+      Iterator<T> attrIterator, String type) {
+    return resourcesDocumentWriter(attrIterator, type, null);
+  }
+
+  /**
+   * Validates a document against the structural rules of JSON API with a
+   * {@link StructuralValidator} and then against the Bean Validation
+   * constraints of the model with {@link BeanDocumentValidator#getDefault()}.
+   * The Bean Validation pass is skipped if the document is structurally
+   * invalid.
+   * 
+   * @param document
+   *          a {@link Document}
+   * @return {@link ErrorObject}s, empty if the document is valid
+   */
+  public static List<ErrorObject> validate(Document<?> document) {
+    List<ErrorObject> errors = STRUCTURAL_VALIDATOR.validate(document);
+    if (!errors.isEmpty()) return errors;
+    return BeanDocumentValidator.getDefault().validate(document);
+  }
+
+  /**
+   * Validates a document with given {@link DocumentValidator}s in order.
+   * 
+   * @param document
+   *          a {@link Document}
+   * @param validators
+   *          {@link DocumentValidator}s
+   * @return {@link ErrorObject}s of all validators, empty if the document is
+   *         valid
+   */
+  public static List<ErrorObject> validate(Document<?> document,
+      DocumentValidator... validators) {
+    List<ErrorObject> errors = newArrayList();
+    for (DocumentValidator validator : validators) {
+      errors.addAll(validator.validate(document));
+    }
+    return errors;
+  }
+
 }
@@ -19,11 +19,17 @@ package com.github.wnameless.jsonapi;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
 import javax.validation.Valid;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -37,7 +43,7 @@ import com.google.common.base.Objects;
  *
  */
 @JsonInclude(NON_NULL)
-public class JsonApiObject implements Jsonable<JsonApiObject> {
+public class JsonApiObject implements StreamingJsonable<JsonApiObject> {
 
   private String version = "1.0";
 
@@ -106,6 +112,15 @@ public class JsonApiObject implements Jsonable<JsonApiObject> {
     return this;
   }
 
+  /**
+   * Returns an immutable copy of this {@link JsonApiObject}.
+   * 
+   * @return a frozen {@link JsonApiObject}
+   */
+  public JsonApiObject freeze() {
+    return new Frozen(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
@@ -130,11 +145,91 @@ public class JsonApiObject implements Jsonable<JsonApiObject> {
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link JsonApiObject} which can't be modified.
+   *
+   */
+  private static final class Frozen extends JsonApiObject {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(JsonApiObject source) {
+      JsonApiObject self = this;
+      self.version = source.version;
+      self.meta = source.meta;
+    }
+
+    @Override
+    public JsonApiObject freeze() {
+      return this;
+    }
+
+    @Override
+    public void setVersion(String version) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
@@ -0,0 +1,129 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * 
+ * {@link JsonBytes} writes values as UTF-8 encoded JSON bytes. Each thread
+ * keeps a {@link ByteArrayBuilder} which is reset and reused for every value,
+ * so only the resulting byte array is allocated. Writing into a
+ * {@link ByteBuffer} goes straight into the buffer without any intermediate
+ * copy.
+ *
+ */
+final class JsonBytes {
+
+  private static final ThreadLocal<ByteArrayBuilder> builders =
+      new ThreadLocal<ByteArrayBuilder>();
+
+  private JsonBytes() {}
+
+  /**
+   * Returns the JSON bytes of given value.
+   * 
+   * @param writer
+   *          an {@link ObjectWriter}
+   * @param value
+   *          the value to write
+   * @return JSON bytes
+   */
+  static byte[] toBytes(ObjectWriter writer, Object value) {
+    ByteArrayBuilder builder = builders.get();
+    if (builder == null) {
+      builder = new ByteArrayBuilder();
+    } else {
+      // Takes the builder away while it is in use, so a nested call on the
+      // same thread gets a fresh one
+      builders.set(null);
+    }
+
+    byte[] bytes = null;
+    try {
+      writer.writeValue(builder, value);
+      bytes = builder.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      builder.reset();
+      builders.set(builder);
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes the JSON bytes of given value into a {@link ByteBuffer}. Jackson
+   * wraps a {@link BufferOverflowException} thrown while serializing into a
+   * {@link JsonMappingException}, but not one thrown while flushing, so the
+   * overflow is unwrapped to surface the same way in both cases.
+   * 
+   * @param writer
+   *          an {@link ObjectWriter}
+   * @param value
+   *          the value to write
+   * @param buffer
+   *          a {@link ByteBuffer}
+   * @throws IOException
+   *           if the JSON can't be written
+   * @throws BufferOverflowException
+   *           if the buffer has not enough space left
+   */
+  static void writeTo(ObjectWriter writer, Object value, ByteBuffer buffer)
+      throws IOException {
+    try {
+      writer.writeValue(new ByteBufferOutputStream(buffer), value);
+    } catch (JsonMappingException e) {
+      for (Throwable cause = e.getCause(); cause != null;
+          cause = cause.getCause()) {
+        if (cause instanceof BufferOverflowException) {
+          throw (BufferOverflowException) cause;
+        }
+      }
+      throw e;
+    }
+  }
+
+  private static final class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferOutputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+      buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      buffer.put(b, off, len);
+    }
+
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.util.List;
+
+/**
+ * 
+ * {@link KeysetSource} fetches items of a data source in a stable order after
+ * a cursor, ex: WHERE id &gt; ? ORDER BY id LIMIT ? of SQL. Unlike
+ * {@link OffsetSource}, the cost of a page doesn't grow with its depth.
+ *
+ * @param <T>
+ *          the type of items
+ */
+public interface KeysetSource<T> {
+
+  /**
+   * Fetches at most limit items which come after the cursor.
+   * 
+   * @param cursor
+   *          the cursor of the last item seen, null for the first page
+   * @param limit
+   *          the maximum number of items to fetch
+   * @return a list of items
+   */
+  List<T> fetchAfter(String cursor, int limit);
+
+  /**
+   * Returns the cursor of an item, ex: its sort key.
+   * 
+   * @param item
+   *          an item
+   * @return a cursor
+   */
+  String cursorOf(T item);
+
+}
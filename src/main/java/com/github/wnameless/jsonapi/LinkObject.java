@@ -19,12 +19,18 @@ package com.github.wnameless.jsonapi;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -37,7 +43,7 @@ import com.google.common.base.Objects;
  *
  */
 @JsonInclude(NON_DEFAULT)
-public class LinkObject implements Jsonable<LinkObject> {
+public class LinkObject implements StreamingJsonable<LinkObject> {
 
   @NotNull
   private String href;
@@ -110,6 +116,15 @@ public class LinkObject implements Jsonable<LinkObject> {
     return this;
   }
 
+  /**
+   * Returns an immutable copy of this link.
+   * 
+   * @return a frozen {@link LinkObject}
+   */
+  public LinkObject freeze() {
+    return new Frozen(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
@@ -134,11 +149,91 @@ public class LinkObject implements Jsonable<LinkObject> {
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link LinkObject} which can't be modified.
+   *
+   */
+  private static final class Frozen extends LinkObject {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(LinkObject source) {
+      LinkObject self = this;
+      self.href = source.href;
+      self.meta = source.meta;
+    }
+
+    @Override
+    public LinkObject freeze() {
+      return this;
+    }
+
+    @Override
+    public void setHref(String href) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
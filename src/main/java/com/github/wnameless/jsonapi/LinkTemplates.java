@@ -0,0 +1,453 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.escape.Escaper;
+import com.google.common.net.UrlEscapers;
+
+/**
+ * 
+ * {@link LinkTemplates} generates the links of resources and of their
+ * relationships from URL templates, ex: /{type}/{id} or
+ * /{type}/{id}/relationships/{rel}. It takes effect once it is set to an
+ * {@link ObjectMapperSnapshot} by
+ * {@link ObjectMapperSnapshot#withLinkTemplates}.<br>
+ * <br>
+ * Templates are compiled once per type of resource with the type folded into
+ * the literal parts, and links are written directly during serialization, so
+ * no {@link LinkObject} or links map is created per resource. The output is
+ * the same as if the links were put into {@link ResourceObject#getLinks} or
+ * {@link RelationshipObject#getLinks}, and a link which is put there
+ * explicitly overrides the template of the same name.<br>
+ * <br>
+ * The variables {id} and {rel} are escaped as URL path segments. Links which
+ * need an {id} are skipped for resources without id.<br>
+ * <br>
+ * A snapshot keeps an immutable copy of the templates, so adding templates
+ * afterward doesn't change it, and the copy returned by
+ * {@link ObjectMapperSnapshot#getLinkTemplates} can't be modified. Compiled
+ * templates are cached for at most {@link #MAX_COMPILED_TYPES} types, others
+ * are compiled on every use.
+ *
+ */
+public final class LinkTemplates {
+
+  private static final String ALL_TYPES = "";
+
+  private static final SerializedString LINKS = new SerializedString("links");
+
+  private static final SerializedString HREF = new SerializedString("href");
+
+  private static final Escaper ESCAPER = UrlEscapers.urlPathSegmentEscaper();
+
+  /**
+   * The max number of types whose compiled templates are cached.
+   */
+  public static final int MAX_COMPILED_TYPES = 1024;
+
+  private final Map<String, Map<String, List<Object>>> resourceTemplates;
+
+  private final Map<String, Map<String, List<Object>>> relationshipTemplates;
+
+  private final boolean attached;
+
+  private final ConcurrentMap<String, TypeLinks> compiled =
+      new ConcurrentHashMap<String, TypeLinks>();
+
+  private final AtomicInteger compiledSize = new AtomicInteger();
+
+  private enum Variable {
+    TYPE, ID, REL
+  }
+
+  /**
+   * Creates an empty {@link LinkTemplates}.
+   */
+  public LinkTemplates() {
+    resourceTemplates = newHashMap();
+    relationshipTemplates = newHashMap();
+    attached = false;
+  }
+
+  private LinkTemplates(LinkTemplates source) {
+    resourceTemplates = immutableCopy(source.resourceTemplates);
+    relationshipTemplates = immutableCopy(source.relationshipTemplates);
+    attached = true;
+  }
+
+  private static Map<String, Map<String, List<Object>>> immutableCopy(
+      Map<String, Map<String, List<Object>>> templates) {
+    ImmutableMap.Builder<String, Map<String, List<Object>>> copy =
+        ImmutableMap.builder();
+    for (Map.Entry<String, Map<String, List<Object>>> entry : templates
+        .entrySet()) {
+      ImmutableMap.Builder<String, List<Object>> named =
+          ImmutableMap.builder();
+      for (Map.Entry<String, List<Object>> template : entry.getValue()
+          .entrySet()) {
+        named.put(template.getKey(), ImmutableList.copyOf(template.getValue()));
+      }
+      copy.put(entry.getKey(), named.build());
+    }
+    return copy.build();
+  }
+
+  /**
+   * Returns an immutable copy of this {@link LinkTemplates} which can be
+   * attached to an {@link ObjectMapperSnapshot}.
+   * 
+   * @return an immutable {@link LinkTemplates}
+   */
+  LinkTemplates attachedCopy() {
+    return attached ? this : new LinkTemplates(this);
+  }
+
+  /**
+   * Adds a link template to resources of all types.
+   * 
+   * @param name
+   *          the name of link, ex: self
+   * @param template
+   *          a URL template which may contain {type} and {id}
+   * @return this {@link LinkTemplates}
+   * @throws IllegalArgumentException
+   *           if the template contains an unknown variable
+   * @throws IllegalStateException
+   *           if this {@link LinkTemplates} belongs to a snapshot
+   */
+  public LinkTemplates withResourceLink(String name, String template) {
+    return withResourceLink(ALL_TYPES, name, template);
+  }
+
+  /**
+   * Adds a link template to resources of given type. It overrides the
+   * template of the same name for all types.
+   * 
+   * @param type
+   *          the type of resource
+   * @param name
+   *          the name of link, ex: self
+   * @param template
+   *          a URL template which may contain {type} and {id}
+   * @return this {@link LinkTemplates}
+   * @throws IllegalArgumentException
+   *           if the template contains an unknown variable
+   * @throws IllegalStateException
+   *           if this {@link LinkTemplates} belongs to a snapshot
+   */
+  public LinkTemplates withResourceLink(String type, String name,
+      String template) {
+    put(resourceTemplates, type, name, parse(template, false));
+    return this;
+  }
+
+  /**
+   * Adds a link template to relationships of resources of all types.
+   * 
+   * @param name
+   *          the name of link, ex: self or related
+   * @param template
+   *          a URL template which may contain {type}, {id} and {rel}
+   * @return this {@link LinkTemplates}
+   * @throws IllegalArgumentException
+   *           if the template contains an unknown variable
+   * @throws IllegalStateException
+   *           if this {@link LinkTemplates} belongs to a snapshot
+   */
+  public LinkTemplates withRelationshipLink(String name, String template) {
+    return withRelationshipLink(ALL_TYPES, name, template);
+  }
+
+  /**
+   * Adds a link template to relationships of resources of given type. It
+   * overrides the template of the same name for all types.
+   * 
+   * @param type
+   *          the type of resource
+   * @param name
+   *          the name of link, ex: self or related
+   * @param template
+   *          a URL template which may contain {type}, {id} and {rel}
+   * @return this {@link LinkTemplates}
+   * @throws IllegalArgumentException
+   *           if the template contains an unknown variable
+   * @throws IllegalStateException
+   *           if this {@link LinkTemplates} belongs to a snapshot
+   */
+  public LinkTemplates withRelationshipLink(String type, String name,
+      String template) {
+    put(relationshipTemplates, type, name, parse(template, true));
+    return this;
+  }
+
+  private void put(Map<String, Map<String, List<Object>>> templates,
+      String type, String name, List<Object> template) {
+    checkState(!attached,
+        "LinkTemplates of an ObjectMapperSnapshot can't be modified");
+    checkNotNull(type);
+    checkNotNull(name);
+    Map<String, List<Object>> named = templates.get(type);
+    if (named == null) {
+      named = newLinkedHashMap();
+      templates.put(type, named);
+    }
+    named.put(name, template);
+    compiled.clear();
+    compiledSize.set(0);
+  }
+
+  private static List<Object> parse(String template, boolean relationship) {
+    List<Object> tokens = newArrayList();
+    int from = 0;
+    while (from < template.length()) {
+      int start = template.indexOf('{', from);
+      if (start < 0) break;
+      int end = template.indexOf('}', start);
+      checkArgument(end > 0, "Unclosed variable in template: %s", template);
+
+      String name = template.substring(start + 1, end);
+      Variable variable;
+      if ("type".equals(name)) {
+        variable = Variable.TYPE;
+      } else if ("id".equals(name)) {
+        variable = Variable.ID;
+      } else if ("rel".equals(name) && relationship) {
+        variable = Variable.REL;
+      } else {
+        throw new IllegalArgumentException(
+            "Unknown variable {" + name + "} in template: " + template);
+      }
+      tokens.add(template.substring(from, start));
+      tokens.add(variable);
+      from = end + 1;
+    }
+    tokens.add(template.substring(from));
+    return tokens;
+  }
+
+  /**
+   * Returns the compiled templates of given type of resource.
+   * 
+   * @param type
+   *          the type of resource
+   * @return a {@link TypeLinks} or null if no template applies
+   */
+  TypeLinks forType(String type) {
+    TypeLinks typeLinks = compiled.get(type);
+    if (typeLinks == null) {
+      typeLinks = new TypeLinks(compile(resourceTemplates, type),
+          compile(relationshipTemplates, type));
+      // Types come from documents, so the cache is bounded like ResourceTypes
+      if (compiledSize.get() < MAX_COMPILED_TYPES) {
+        TypeLinks existed = compiled.putIfAbsent(type, typeLinks);
+        if (existed == null) {
+          compiledSize.incrementAndGet();
+        } else {
+          typeLinks = existed;
+        }
+      }
+    }
+    return typeLinks.isEmpty() ? null : typeLinks;
+  }
+
+  private static List<Template> compile(
+      Map<String, Map<String, List<Object>>> templates, String type) {
+    Map<String, List<Object>> named = newLinkedHashMap();
+    if (templates.containsKey(ALL_TYPES)) {
+      named.putAll(templates.get(ALL_TYPES));
+    }
+    if (templates.containsKey(type)) named.putAll(templates.get(type));
+    if (named.isEmpty()) return Collections.emptyList();
+
+    List<Template> compiledTemplates = newArrayList();
+    for (Map.Entry<String, List<Object>> entry : named.entrySet()) {
+      compiledTemplates
+          .add(new Template(entry.getKey(), entry.getValue(), type));
+    }
+    return compiledTemplates;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("resourceLinks", resourceTemplates)
+        .add("relationshipLinks", relationshipTemplates).toString();
+  }
+
+  /**
+   * 
+   * {@link TypeLinks} holds the compiled templates of a type of resource and
+   * writes the links member of its resources and relationships.
+   *
+   */
+  static final class TypeLinks {
+
+    private final List<Template> resourceLinks;
+
+    private final List<Template> relationshipLinks;
+
+    private TypeLinks(List<Template> resourceLinks,
+        List<Template> relationshipLinks) {
+      this.resourceLinks = resourceLinks;
+      this.relationshipLinks = relationshipLinks;
+    }
+
+    boolean isEmpty() {
+      return resourceLinks.isEmpty() && relationshipLinks.isEmpty();
+    }
+
+    boolean hasRelationshipLinks() {
+      return !relationshipLinks.isEmpty();
+    }
+
+    void writeResourceLinks(String id, Map<String, LinkObject> links,
+        JsonGenerator gen, SerializerProvider provider) throws IOException {
+      writeLinks(resourceLinks, id, null, links, false, gen, provider);
+    }
+
+    void writeRelationshipLinks(String id, String rel,
+        Map<String, LinkObject> links, JsonGenerator gen,
+        SerializerProvider provider) throws IOException {
+      writeLinks(relationshipLinks, id, rel, links, links != null, gen,
+          provider);
+    }
+
+    private static void writeLinks(List<Template> templates, String id,
+        String rel, Map<String, LinkObject> links, boolean writeEmpty,
+        JsonGenerator gen, SerializerProvider provider) throws IOException {
+      boolean started = false;
+      for (Template template : templates) {
+        if (links != null && links.containsKey(template.name.getValue())) {
+          continue;
+        }
+        String href = template.render(id, rel);
+        if (href == null) continue;
+
+        if (!started) {
+          gen.writeFieldName(LINKS);
+          gen.writeStartObject();
+          started = true;
+        }
+        gen.writeFieldName(template.name);
+        gen.writeStartObject();
+        gen.writeFieldName(HREF);
+        gen.writeString(href);
+        gen.writeEndObject();
+      }
+      if (links != null) {
+        for (Map.Entry<String, LinkObject> entry : links.entrySet()) {
+          if (!started) {
+            gen.writeFieldName(LINKS);
+            gen.writeStartObject();
+            started = true;
+          }
+          provider.defaultSerializeField(entry.getKey(), entry.getValue(), gen);
+        }
+      }
+      if (started) {
+        gen.writeEndObject();
+      } else if (writeEmpty) {
+        gen.writeFieldName(LINKS);
+        gen.writeStartObject();
+        gen.writeEndObject();
+      }
+    }
+
+  }
+
+  /**
+   * 
+   * {@link Template} is a link template compiled for a type of resource. The
+   * type is folded into the literal parts, so only {id} and {rel} are left to
+   * fill in.
+   *
+   */
+  private static final class Template {
+
+    private final SerializableString name;
+
+    private final String[] literals;
+
+    private final Variable[] variables;
+
+    private final int length;
+
+    private Template(String name, List<Object> tokens, String type) {
+      this.name = new SerializedString(name);
+      List<String> literalList = newArrayList();
+      List<Variable> variableList = newArrayList();
+      StringBuilder literal = new StringBuilder();
+      for (Object token : tokens) {
+        if (token == Variable.TYPE) {
+          literal.append(type);
+        } else if (token instanceof Variable) {
+          literalList.add(literal.toString());
+          variableList.add((Variable) token);
+          literal.setLength(0);
+        } else {
+          literal.append(token);
+        }
+      }
+      literalList.add(literal.toString());
+      literals = literalList.toArray(new String[literalList.size()]);
+      variables = variableList.toArray(new Variable[variableList.size()]);
+      int sum = 0;
+      for (String part : literals) {
+        sum += part.length();
+      }
+      length = sum;
+    }
+
+    private String render(String id, String rel) {
+      if (variables.length == 0) return literals[0];
+
+      StringBuilder href = new StringBuilder(length + 32);
+      href.append(literals[0]);
+      for (int i = 0; i < variables.length; i++) {
+        String value = variables[i] == Variable.ID ? id : rel;
+        if (value == null) return null;
+        href.append(ESCAPER.escape(value)).append(literals[i + 1]);
+      }
+      return href.toString();
+    }
+
+  }
+
+}
@@ -17,21 +17,36 @@
  */
 package com.github.wnameless.jsonapi;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 /**
  * 
  * {@link ObjectMapperFactory} provides a Jackson {@link ObjectMapper} for the
  * entire Japison library to use. Users can set their own instance of
  * {@link ObjectMapper} to this factory, in doing so, the JSON deserialization
- * behavior will be changed globally within this library.
+ * behavior will be changed globally within this library.<br>
+ * <br>
+ * The {@link ObjectMapper} is held in an immutable
+ * {@link ObjectMapperSnapshot} together with the {@link ObjectWriter}s and
+ * {@link ObjectReader}s derived from it. Snapshots are published atomically,
+ * so they can be swapped while other threads are serializing without any
+ * locking and without a thread ever seeing a half configured state.
  *
  */
 public final class ObjectMapperFactory {
 
   private ObjectMapperFactory() {}
 
-  private static ObjectMapper mapper = new ObjectMapper();
+  private static final AtomicReference<ObjectMapperSnapshot> snapshot =
+      new AtomicReference<ObjectMapperSnapshot>(
+          new ObjectMapperSnapshot(new ObjectMapper()));
 
   /**
    * Returns the {@link ObjectMapper} for Japison library to use.
@@ -39,17 +54,154 @@ public final class ObjectMapperFactory {
    * @return a {@link ObjectMapper}
    */
   public static ObjectMapper getObjectMapper() {
-    return mapper;
+    return snapshot.get().getObjectMapper();
   }
 
   /**
-   * Sets the {@link ObjectMapper} for Japison library to use.
+   * Sets the {@link ObjectMapper} for Japison library to use. A new
+   * {@link ObjectMapperSnapshot} is published, so all cached
+   * {@link ObjectWriter}s, {@link ObjectReader}s and {@link JavaType}s are
+   * rebuilt on demand from the new {@link ObjectMapper}.
    * 
    * @param objectMapper
    *          a {@link ObjectMapper}
    */
   public static void setObjectMapper(ObjectMapper objectMapper) {
-    mapper = objectMapper;
+    setSnapshot(new ObjectMapperSnapshot(objectMapper));
+  }
+
+  /**
+   * Returns the current {@link ObjectMapperSnapshot}. Operations which need a
+   * consistent view of the configuration across several calls should hold on
+   * to the returned snapshot.
+   * 
+   * @return the current {@link ObjectMapperSnapshot}
+   */
+  public static ObjectMapperSnapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Publishes a {@link ObjectMapperSnapshot} atomically.
+   * 
+   * @param newSnapshot
+   *          a {@link ObjectMapperSnapshot}
+   * @return the previous {@link ObjectMapperSnapshot}
+   */
+  public static ObjectMapperSnapshot setSnapshot(
+      ObjectMapperSnapshot newSnapshot) {
+    return snapshot.getAndSet(checkNotNull(newSnapshot));
+  }
+
+  /**
+   * Publishes a {@link ObjectMapperSnapshot} atomically only if the current
+   * snapshot is still the expected one, so concurrent reconfigurations never
+   * silently overwrite each other.
+   * 
+   * @param expectedSnapshot
+   *          the expected current {@link ObjectMapperSnapshot}
+   * @param newSnapshot
+   *          a {@link ObjectMapperSnapshot}
+   * @return true if the new snapshot is published, false otherwise
+   */
+  public static boolean compareAndSetSnapshot(
+      ObjectMapperSnapshot expectedSnapshot, ObjectMapperSnapshot newSnapshot) {
+    return snapshot.compareAndSet(expectedSnapshot, checkNotNull(newSnapshot));
+  }
+
+  /**
+   * Returns a {@link JavaType} of a generic document or object class which is
+   * parameterized by given attribute class, ex: ResourcesDocument&lt;Foo&gt;.
+   * 
+   * @param rawClass
+   *          a generic class which has one type parameter
+   * @param attributeClass
+   *          the class of the type parameter
+   * @return a {@link JavaType}
+   */
+  public static JavaType constructType(Class<?> rawClass,
+      Class<?> attributeClass) {
+    return snapshot.get().constructType(rawClass, attributeClass);
+  }
+
+  /**
+   * Returns a cached {@link ObjectWriter} for given root type. The writer
+   * leaves the output target open after writing.
+   * 
+   * @param type
+   *          the root type to write
+   * @return a {@link ObjectWriter}
+   */
+  public static ObjectWriter getObjectWriter(Class<?> type) {
+    return snapshot.get().getObjectWriter(type);
+  }
+
+  /**
+   * Returns a cached {@link ObjectWriter} for given root type. The writer
+   * leaves the output target open after writing.
+   * 
+   * @param type
+   *          the root type to write
+   * @return a {@link ObjectWriter}
+   */
+  public static ObjectWriter getObjectWriter(JavaType type) {
+    return snapshot.get().getObjectWriter(type);
+  }
+
+  /**
+   * Returns a cached {@link ObjectWriter} for given generic class which is
+   * parameterized by given attribute class.
+   * 
+   * @param rawClass
+   *          a generic class which has one type parameter
+   * @param attributeClass
+   *          the class of the type parameter
+   * @return a {@link ObjectWriter}
+   */
+  public static ObjectWriter getObjectWriter(Class<?> rawClass,
+      Class<?> attributeClass) {
+    ObjectMapperSnapshot current = snapshot.get();
+    return current
+        .getObjectWriter(current.constructType(rawClass, attributeClass));
+  }
+
+  /**
+   * Returns a cached {@link ObjectReader} for given root type.
+   * 
+   * @param type
+   *          the root type to read
+   * @return a {@link ObjectReader}
+   */
+  public static ObjectReader getObjectReader(Class<?> type) {
+    return snapshot.get().getObjectReader(type);
+  }
+
+  /**
+   * Returns a cached {@link ObjectReader} for given root type.
+   * 
+   * @param type
+   *          the root type to read
+   * @return a {@link ObjectReader}
+   */
+  public static ObjectReader getObjectReader(JavaType type) {
+    return snapshot.get().getObjectReader(type);
+  }
+
+  /**
+   * Returns a cached {@link ObjectReader} for given generic class which is
+   * parameterized by given attribute class.
+   * 
+   * @param rawClass
+   *          a generic class which has one type parameter
+   * @param attributeClass
+   *          the class of the type parameter
+   * @return a {@link ObjectReader}
+   */
+  public static ObjectReader getObjectReader(Class<?> rawClass,
+      Class<?> attributeClass) {
+    ObjectMapperSnapshot current = snapshot.get();
+    return current
+        .getObjectReader(current.constructType(rawClass, attributeClass));
   }
 
 }
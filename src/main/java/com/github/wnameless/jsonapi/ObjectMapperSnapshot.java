@@ -0,0 +1,336 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * 
+ * {@link ObjectMapperSnapshot} is an immutable configuration of Japison which
+ * binds a Jackson {@link ObjectMapper} together with all the
+ * {@link ObjectWriter}s, {@link ObjectReader}s and {@link JavaType}s derived
+ * from it. Derived objects are built on demand and memoized per snapshot, so a
+ * snapshot never mixes objects coming from different {@link ObjectMapper}s.<br>
+ * <br>
+ * The {@link ObjectMapper} of a published snapshot should not be reconfigured
+ * anymore. Build a new snapshot and publish it through
+ * {@link ObjectMapperFactory#setSnapshot} instead.<br>
+ * <br>
+ * A snapshot also carries a Smile {@link ObjectMapper} for the binary
+ * {@link DocumentFormat#SMILE} encoding. Unless one is given, it is derived
+ * from the JSON {@link ObjectMapper} on first use, which requires
+ * jackson-dataformat-smile on the classpath.<br>
+ * <br>
+ * An {@link AttributesWriterRegistry} can be attached to a snapshot by
+ * {@link #withAttributesWriters}, so all {@link ObjectWriter}s of the snapshot
+ * write attributes with the registered {@link AttributesWriter}s. So can
+ * {@link LinkTemplates} by {@link #withLinkTemplates}.
+ *
+ */
+public final class ObjectMapperSnapshot {
+
+  private final ObjectMapper mapper;
+
+  private final ObjectMapper smileMapper;
+
+  private final AttributesWriterRegistry attributesWriters;
+
+  private final LinkTemplates linkTemplates;
+
+  private final AtomicReference<ObjectMapperSnapshot> smileSnapshot =
+      new AtomicReference<ObjectMapperSnapshot>();
+
+  private final ConcurrentMap<Class<?>, ObjectWriter> classWriters =
+      new ConcurrentHashMap<Class<?>, ObjectWriter>();
+
+  private final ConcurrentMap<JavaType, ObjectWriter> typeWriters =
+      new ConcurrentHashMap<JavaType, ObjectWriter>();
+
+  private final ConcurrentMap<Class<?>, ObjectReader> classReaders =
+      new ConcurrentHashMap<Class<?>, ObjectReader>();
+
+  private final ConcurrentMap<JavaType, ObjectReader> typeReaders =
+      new ConcurrentHashMap<JavaType, ObjectReader>();
+
+  private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, JavaType>> javaTypes =
+      new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, JavaType>>();
+
+  private final FieldsetProperties fieldsetProperties =
+      new FieldsetProperties();
+
+  /**
+   * Creates a {@link ObjectMapperSnapshot} of given {@link ObjectMapper}.
+   * 
+   * @param mapper
+   *          a {@link ObjectMapper}
+   */
+  public ObjectMapperSnapshot(ObjectMapper mapper) {
+    this.mapper = checkNotNull(mapper);
+    smileMapper = null;
+    attributesWriters = null;
+    linkTemplates = null;
+  }
+
+  /**
+   * Creates a {@link ObjectMapperSnapshot} of given JSON and Smile
+   * {@link ObjectMapper}s. Use it when the Smile {@link ObjectMapper} needs
+   * modules or settings which can't be derived from the JSON one.
+   * 
+   * @param mapper
+   *          a JSON {@link ObjectMapper}
+   * @param smileMapper
+   *          a {@link ObjectMapper} backed by a Smile factory
+   */
+  public ObjectMapperSnapshot(ObjectMapper mapper, ObjectMapper smileMapper) {
+    this.mapper = checkNotNull(mapper);
+    this.smileMapper = checkNotNull(smileMapper);
+    attributesWriters = null;
+    linkTemplates = null;
+  }
+
+  private ObjectMapperSnapshot(ObjectMapper mapper, ObjectMapper smileMapper,
+      AttributesWriterRegistry attributesWriters,
+      LinkTemplates linkTemplates) {
+    this.mapper = mapper;
+    this.smileMapper = smileMapper;
+    this.attributesWriters = attributesWriters;
+    this.linkTemplates = linkTemplates;
+  }
+
+  /**
+   * Returns a new snapshot of the same {@link ObjectMapper}s whose
+   * {@link ObjectWriter}s write attributes with given
+   * {@link AttributesWriterRegistry}. The snapshot keeps an immutable copy of
+   * it.
+   * 
+   * @param attributesWriters
+   *          an {@link AttributesWriterRegistry}, null to remove it
+   * @return a new {@link ObjectMapperSnapshot}
+   */
+  public ObjectMapperSnapshot withAttributesWriters(
+      AttributesWriterRegistry attributesWriters) {
+    return new ObjectMapperSnapshot(mapper, smileMapper,
+        attributesWriters == null ? null : attributesWriters.attachedCopy(),
+        linkTemplates);
+  }
+
+  /**
+   * Returns the immutable {@link AttributesWriterRegistry} of this snapshot.
+   * 
+   * @return an {@link AttributesWriterRegistry} or null
+   */
+  public AttributesWriterRegistry getAttributesWriters() {
+    return attributesWriters;
+  }
+
+  /**
+   * Returns a new snapshot of the same {@link ObjectMapper}s whose
+   * {@link ObjectWriter}s write links with given {@link LinkTemplates}. The
+   * snapshot keeps an immutable copy of them.
+   * 
+   * @param linkTemplates
+   *          a {@link LinkTemplates}, null to remove it
+   * @return a new {@link ObjectMapperSnapshot}
+   */
+  public ObjectMapperSnapshot withLinkTemplates(LinkTemplates linkTemplates) {
+    return new ObjectMapperSnapshot(mapper, smileMapper, attributesWriters,
+        linkTemplates == null ? null : linkTemplates.attachedCopy());
+  }
+
+  /**
+   * Returns the immutable {@link LinkTemplates} of this snapshot.
+   * 
+   * @return a {@link LinkTemplates} or null
+   */
+  public LinkTemplates getLinkTemplates() {
+    return linkTemplates;
+  }
+
+  /**
+   * Returns the {@link ObjectMapper} of this snapshot.
+   * 
+   * @return a {@link ObjectMapper}
+   */
+  public ObjectMapper getObjectMapper() {
+    return mapper;
+  }
+
+  /**
+   * Returns the snapshot of the {@link ObjectMapper} which writes and reads
+   * given {@link DocumentFormat}.
+   * 
+   * @param format
+   *          a {@link DocumentFormat}
+   * @return this snapshot for JSON, a memoized Smile snapshot for Smile
+   */
+  public ObjectMapperSnapshot forFormat(DocumentFormat format) {
+    if (format == DocumentFormat.JSON) return this;
+
+    ObjectMapperSnapshot snapshot = smileSnapshot.get();
+    if (snapshot == null) {
+      snapshot = new ObjectMapperSnapshot(
+          smileMapper == null ? SmileObjectMappers.derive(mapper)
+              : smileMapper,
+          null, attributesWriters, linkTemplates);
+      if (!smileSnapshot.compareAndSet(null, snapshot)) {
+        snapshot = smileSnapshot.get();
+      }
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns a {@link JavaType} of a generic document or object class which is
+   * parameterized by given attribute class, ex: ResourcesDocument&lt;Foo&gt;.
+   * 
+   * @param rawClass
+   *          a generic class which has one type parameter
+   * @param attributeClass
+   *          the class of the type parameter
+   * @return a {@link JavaType}
+   */
+  public JavaType constructType(Class<?> rawClass, Class<?> attributeClass) {
+    ConcurrentMap<Class<?>, JavaType> types = javaTypes.get(rawClass);
+    if (types == null) {
+      types = new ConcurrentHashMap<Class<?>, JavaType>();
+      ConcurrentMap<Class<?>, JavaType> existed =
+          javaTypes.putIfAbsent(rawClass, types);
+      if (existed != null) types = existed;
+    }
+
+    JavaType type = types.get(attributeClass);
+    if (type == null) {
+      type = mapper.getTypeFactory().constructParametricType(rawClass,
+          attributeClass);
+      JavaType existed = types.putIfAbsent(attributeClass, type);
+      if (existed != null) type = existed;
+    }
+    return type;
+  }
+
+  /**
+   * Returns a memoized {@link ObjectWriter} for given root type. The writer
+   * leaves the output target open after writing.
+   * 
+   * @param type
+   *          the root type to write
+   * @return a {@link ObjectWriter}
+   */
+  public ObjectWriter getObjectWriter(Class<?> type) {
+    ObjectWriter writer = classWriters.get(type);
+    if (writer == null) {
+      writer = configure(mapper.writerFor(type));
+      ObjectWriter existed = classWriters.putIfAbsent(type, writer);
+      if (existed != null) writer = existed;
+    }
+    return writer;
+  }
+
+  /**
+   * Returns a memoized {@link ObjectWriter} for given root type. The writer
+   * leaves the output target open after writing.
+   * 
+   * @param type
+   *          the root type to write
+   * @return a {@link ObjectWriter}
+   */
+  public ObjectWriter getObjectWriter(JavaType type) {
+    ObjectWriter writer = typeWriters.get(type);
+    if (writer == null) {
+      writer = configure(mapper.writerFor(type));
+      ObjectWriter existed = typeWriters.putIfAbsent(type, writer);
+      if (existed != null) writer = existed;
+    }
+    return writer;
+  }
+
+  private ObjectWriter configure(ObjectWriter writer) {
+    writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .withAttribute(FieldsetProperties.class, fieldsetProperties);
+    if (attributesWriters != null) {
+      writer = writer.withAttribute(AttributesWriterRegistry.class,
+          attributesWriters);
+    }
+    if (linkTemplates != null) {
+      writer = writer.withAttribute(LinkTemplates.class, linkTemplates);
+    }
+    return writer;
+  }
+
+  /**
+   * Returns a memoized {@link ObjectReader} for given root type.
+   * 
+   * @param type
+   *          the root type to read
+   * @return a {@link ObjectReader}
+   */
+  public ObjectReader getObjectReader(Class<?> type) {
+    ObjectReader reader = classReaders.get(type);
+    if (reader == null) {
+      reader = mapper.readerFor(type);
+      ObjectReader existed = classReaders.putIfAbsent(type, reader);
+      if (existed != null) reader = existed;
+    }
+    return reader;
+  }
+
+  /**
+   * Returns a memoized {@link ObjectReader} for given root type.
+   * 
+   * @param type
+   *          the root type to read
+   * @return a {@link ObjectReader}
+   */
+  public ObjectReader getObjectReader(JavaType type) {
+    ObjectReader reader = typeReaders.get(type);
+    if (reader == null) {
+      reader = mapper.readerFor(type);
+      ObjectReader existed = typeReaders.putIfAbsent(type, reader);
+      if (existed != null) reader = existed;
+    }
+    return reader;
+  }
+
+  /**
+   * Builds the {@link ObjectWriter}s and {@link ObjectReader}s of given root
+   * types in advance, so a freshly published snapshot doesn't pay for them on
+   * the serialization hot path.
+   * 
+   * @param types
+   *          root types to write and read
+   * @return this {@link ObjectMapperSnapshot}
+   */
+  public ObjectMapperSnapshot warmUp(Class<?>... types) {
+    for (Class<?> type : types) {
+      getObjectWriter(type);
+      getObjectReader(type);
+    }
+    return this;
+  }
+
+}
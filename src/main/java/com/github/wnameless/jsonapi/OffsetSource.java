@@ -0,0 +1,43 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.util.List;
+
+/**
+ * 
+ * {@link OffsetSource} fetches items of a data source by offset and limit,
+ * ex: OFFSET and LIMIT of SQL.
+ *
+ * @param <T>
+ *          the type of items
+ */
+public interface OffsetSource<T> {
+
+  /**
+   * Fetches at most limit items starting at the offset.
+   * 
+   * @param offset
+   *          the number of items to skip
+   * @param limit
+   *          the maximum number of items to fetch
+   * @return a list of items
+   */
+  List<T> fetch(long offset, int limit);
+
+}
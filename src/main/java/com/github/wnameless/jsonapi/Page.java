@@ -0,0 +1,291 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.escape.Escaper;
+import com.google.common.net.UrlEscapers;
+
+/**
+ * 
+ * {@link Page} is a page of items fetched from a data source with a
+ * {@link Pagination}. One more item than the size of page is fetched to find
+ * out whether there is a next page, so no count query is needed for the
+ * first, prev and next links. The total, which the last link needs, is
+ * optional and computed lazily at most once.
+ * 
+ * @param <T>
+ *          the type of items
+ */
+public final class Page<T> {
+
+  private static final Escaper ESCAPER = UrlEscapers.urlFormParameterEscaper();
+
+  private final Pagination pagination;
+
+  private final List<T> items;
+
+  private final boolean hasNext;
+
+  private final String nextCursor;
+
+  private Supplier<Long> total;
+
+  private Page(Pagination pagination, List<T> items, boolean hasNext,
+      String nextCursor) {
+    this.pagination = pagination;
+    this.items = items;
+    this.hasNext = hasNext;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Fetches a page from an {@link OffsetSource}.
+   * 
+   * @param <T>
+   *          the type of items
+   * @param pagination
+   *          an offset based {@link Pagination}
+   * @param source
+   *          an {@link OffsetSource}
+   * @return a {@link Page}
+   */
+  public static <T> Page<T> fetch(Pagination pagination,
+      OffsetSource<T> source) {
+    checkArgument(pagination.getStrategy() == Pagination.Strategy.OFFSET,
+        "Pagination must be offset based");
+    List<T> items =
+        source.fetch(pagination.getOffset(), pagination.getSize() + 1);
+    boolean hasNext = items.size() > pagination.getSize();
+    return new Page<T>(pagination, trim(items, pagination.getSize()), hasNext,
+        null);
+  }
+
+  /**
+   * Fetches a page from a {@link KeysetSource}.
+   * 
+   * @param <T>
+   *          the type of items
+   * @param pagination
+   *          a cursor based {@link Pagination}
+   * @param source
+   *          a {@link KeysetSource}
+   * @return a {@link Page}
+   */
+  public static <T> Page<T> fetch(Pagination pagination,
+      KeysetSource<T> source) {
+    checkArgument(pagination.getStrategy() == Pagination.Strategy.CURSOR,
+        "Pagination must be cursor based");
+    List<T> items =
+        source.fetchAfter(pagination.getCursor(), pagination.getSize() + 1);
+    boolean hasNext = items.size() > pagination.getSize();
+    items = trim(items, pagination.getSize());
+    String nextCursor = hasNext
+        ? checkNotNull(source.cursorOf(items.get(items.size() - 1))) : null;
+    return new Page<T>(pagination, items, hasNext, nextCursor);
+  }
+
+  private static <T> List<T> trim(List<T> items, int size) {
+    if (items.size() <= size) return items;
+    return new ArrayList<T>(items.subList(0, size));
+  }
+
+  /**
+   * Iterates all pages of a {@link KeysetSource}. Each page is fetched after
+   * the cursor of the previous one when it is requested, so deep pages cost
+   * the same as the first one.
+   * 
+   * @param <T>
+   *          the type of items
+   * @param source
+   *          a {@link KeysetSource}
+   * @param size
+   *          the size of page
+   * @return an {@link Iterator} of {@link Page}s
+   */
+  public static <T> Iterator<Page<T>> iterate(final KeysetSource<T> source,
+      int size) {
+    final Pagination first = Pagination.cursor(null, size);
+    return new AbstractIterator<Page<T>>() {
+
+      private Pagination next = first;
+
+      @Override
+      protected Page<T> computeNext() {
+        if (next == null) return endOfData();
+
+        Page<T> page = fetch(next, source);
+        next = page.getNextPagination();
+        return page;
+      }
+
+    };
+  }
+
+  /**
+   * Iterates all items of a {@link KeysetSource} page by page, ex: to stream
+   * them with a {@link ResourcesDocumentWriter}.
+   * 
+   * @param <T>
+   *          the type of items
+   * @param source
+   *          a {@link KeysetSource}
+   * @param size
+   *          the size of page
+   * @return an {@link Iterator} of items
+   */
+  public static <T> Iterator<T> items(KeysetSource<T> source, int size) {
+    return Iterators.concat(Iterators.transform(iterate(source, size),
+        new Function<Page<T>, Iterator<T>>() {
+
+          @Override
+          public Iterator<T> apply(Page<T> page) {
+            return page.getItems().iterator();
+          }
+
+        }));
+  }
+
+  /**
+   * Sets the supplier of the total number of items. It is called at most once
+   * and only when the total or the last link is needed.
+   * 
+   * @param total
+   *          a {@link Supplier} of the total, ex: a count query
+   * @return this {@link Page}
+   */
+  public Page<T> withTotal(Supplier<Long> total) {
+    this.total = total == null ? null : Suppliers.memoize(total);
+    return this;
+  }
+
+  /**
+   * Returns the {@link Pagination} of this page.
+   * 
+   * @return a {@link Pagination}
+   */
+  public Pagination getPagination() {
+    return pagination;
+  }
+
+  /**
+   * Returns the items of this page.
+   * 
+   * @return an unmodifiable list of items
+   */
+  public List<T> getItems() {
+    return Collections.unmodifiableList(items);
+  }
+
+  /**
+   * Returns true if there is a next page.
+   * 
+   * @return true if there is a next page, false otherwise
+   */
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  /**
+   * Returns the {@link Pagination} of the next page.
+   * 
+   * @return a {@link Pagination} or null if this is the last page
+   */
+  public Pagination getNextPagination() {
+    return hasNext ? pagination.next(nextCursor) : null;
+  }
+
+  /**
+   * Returns the total number of items.
+   * 
+   * @return the total or null if no supplier of it is set
+   */
+  public Long getTotal() {
+    return total == null ? null : total.get();
+  }
+
+  /**
+   * Returns the first, prev, next and last {@link LinkObject}s of this page.
+   * Links which don't apply are omitted: prev on the first page, next on the
+   * last page and last if the total is unknown. Cursor based pages have only
+   * first and next links.
+   * 
+   * @param baseUrl
+   *          the URL of the collection, which may have a query string already
+   * @return a map between link name and {@link LinkObject}s
+   */
+  public Map<String, LinkObject> links(String baseUrl) {
+    Map<String, LinkObject> links = newLinkedHashMap();
+    int size = pagination.getSize();
+    if (pagination.getStrategy() == Pagination.Strategy.OFFSET) {
+      long offset = pagination.getOffset();
+      links.put("first", link(baseUrl, offsetQuery(0, size)));
+      if (offset > 0) {
+        links.put("prev",
+            link(baseUrl, offsetQuery(Math.max(0, offset - size), size)));
+      }
+      if (hasNext) {
+        links.put("next", link(baseUrl, offsetQuery(offset + size, size)));
+      }
+      Long count = getTotal();
+      if (count != null) {
+        long last = count == 0 ? 0 : (count - 1) / size * size;
+        links.put("last", link(baseUrl, offsetQuery(last, size)));
+      }
+    } else {
+      links.put("first", link(baseUrl, "page[size]=" + size));
+      if (hasNext) {
+        links.put("next", link(baseUrl, "page[cursor]="
+            + ESCAPER.escape(nextCursor) + "&page[size]=" + size));
+      }
+    }
+    return links;
+  }
+
+  private static String offsetQuery(long offset, int limit) {
+    return "page[offset]=" + offset + "&page[limit]=" + limit;
+  }
+
+  private static LinkObject link(String baseUrl, String query) {
+    return new LinkObject().withHref(
+        baseUrl + (baseUrl.indexOf('?') < 0 ? '?' : '&') + query);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("pagination", pagination)
+        .add("items", items).add("hasNext", hasNext)
+        .add("nextCursor", nextCursor).toString();
+  }
+
+}
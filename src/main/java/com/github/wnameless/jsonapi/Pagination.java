@@ -0,0 +1,211 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * 
+ * {@link Pagination} is the page requested by a client, either by offset
+ * (page[offset] and page[limit]) or by cursor (page[cursor] and page[size]).
+ * It is immutable.
+ * 
+ * @see <a href="http://jsonapi.org/format/#fetching-pagination">JSON API
+ *      Specification (v1.0) Pagination</a>
+ *
+ */
+public final class Pagination {
+
+  /**
+   * 
+   * {@link Strategy} is the way a page is located in the data.
+   *
+   */
+  public enum Strategy {
+    OFFSET, CURSOR
+  }
+
+  private final Strategy strategy;
+
+  private final long offset;
+
+  private final String cursor;
+
+  private final int size;
+
+  private Pagination(Strategy strategy, long offset, String cursor,
+      int size) {
+    checkArgument(offset >= 0, "Offset must not be negative");
+    checkArgument(size > 0, "Page size must be positive");
+    this.strategy = strategy;
+    this.offset = offset;
+    this.cursor = cursor;
+    this.size = size;
+  }
+
+  /**
+   * Creates an offset based {@link Pagination}.
+   * 
+   * @param offset
+   *          the number of items to skip
+   * @param limit
+   *          the size of page
+   * @return a {@link Pagination}
+   */
+  public static Pagination offset(long offset, int limit) {
+    return new Pagination(Strategy.OFFSET, offset, null, limit);
+  }
+
+  /**
+   * Creates a cursor based {@link Pagination}.
+   * 
+   * @param cursor
+   *          the cursor of the last item seen, null for the first page
+   * @param size
+   *          the size of page
+   * @return a {@link Pagination}
+   */
+  public static Pagination cursor(String cursor, int size) {
+    return new Pagination(Strategy.CURSOR, 0, cursor, size);
+  }
+
+  /**
+   * Creates an offset based {@link Pagination} from query parameters like
+   * page[offset]=20&amp;page[limit]=10. The limit is capped by the max limit.
+   * 
+   * @param parameters
+   *          a map of query parameter names and values
+   * @param defaultLimit
+   *          the size of page if page[limit] is absent
+   * @param maxLimit
+   *          the max size of page
+   * @return a {@link Pagination}
+   * @throws IllegalArgumentException
+   *           if any page parameter is invalid
+   */
+  public static Pagination offsetFromQueryParameters(
+      Map<String, String> parameters, int defaultLimit, int maxLimit) {
+    String offset = parameters.get("page[offset]");
+    return offset(offset == null ? 0 : Long.parseLong(offset),
+        size(parameters.get("page[limit]"), defaultLimit, maxLimit));
+  }
+
+  /**
+   * Creates a cursor based {@link Pagination} from query parameters like
+   * page[cursor]=abc&amp;page[size]=10. The size is capped by the max size.
+   * 
+   * @param parameters
+   *          a map of query parameter names and values
+   * @param defaultSize
+   *          the size of page if page[size] is absent
+   * @param maxSize
+   *          the max size of page
+   * @return a {@link Pagination}
+   * @throws IllegalArgumentException
+   *           if any page parameter is invalid
+   */
+  public static Pagination cursorFromQueryParameters(
+      Map<String, String> parameters, int defaultSize, int maxSize) {
+    String cursor = parameters.get("page[cursor]");
+    return cursor(cursor == null || cursor.isEmpty() ? null : cursor,
+        size(parameters.get("page[size]"), defaultSize, maxSize));
+  }
+
+  private static int size(String size, int defaultSize, int maxSize) {
+    if (size == null) return defaultSize;
+    return Math.min(Integer.parseInt(size), maxSize);
+  }
+
+  /**
+   * Returns the {@link Strategy} of this pagination.
+   * 
+   * @return a {@link Strategy}
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * Returns the number of items to skip, always 0 for the cursor strategy.
+   * 
+   * @return the offset
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Returns the cursor of the last item seen, always null for the offset
+   * strategy.
+   * 
+   * @return a cursor or null
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Returns the size of page.
+   * 
+   * @return the size of page
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the {@link Pagination} of the next page.
+   * 
+   * @param nextCursor
+   *          the cursor of the last item on this page, ignored by the offset
+   *          strategy
+   * @return a {@link Pagination}
+   */
+  Pagination next(String nextCursor) {
+    if (strategy == Strategy.OFFSET) return offset(offset + size, size);
+    return cursor(checkNotNull(nextCursor), size);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) return true;
+    if (!(other instanceof Pagination)) return false;
+    Pagination castOther = (Pagination) other;
+    return strategy == castOther.strategy && offset == castOther.offset
+        && Objects.equal(cursor, castOther.cursor) && size == castOther.size;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(strategy, offset, cursor, size);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("strategy", strategy)
+        .add("offset", offset).add("cursor", cursor).add("size", size)
+        .toString();
+  }
+
+}
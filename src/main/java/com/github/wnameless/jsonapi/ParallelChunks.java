@@ -0,0 +1,177 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * 
+ * {@link ParallelChunks} splits a range of indices into chunks and processes
+ * them concurrently. Chunks are claimed one by one from a shared counter by
+ * the worker tasks and by the calling thread itself, so the work still
+ * completes if the {@link Executor} is saturated or rejects the tasks.
+ *
+ */
+final class ParallelChunks {
+
+  static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private static final int MIN_CHUNK_SIZE = 256;
+
+  private ParallelChunks() {}
+
+  private static final class DefaultExecutorHolder {
+
+    private static final ExecutorService EXECUTOR =
+        Executors.newFixedThreadPool(PARALLELISM, new ThreadFactoryBuilder()
+            .setNameFormat("japison-worker-%d").setDaemon(true).build());
+
+  }
+
+  /**
+   * Returns the shared {@link Executor} which is created on first use. Its
+   * threads are daemon threads, so it never prevents the JVM from exiting.
+   * 
+   * @return a {@link Executor}
+   */
+  static Executor defaultExecutor() {
+    return DefaultExecutorHolder.EXECUTOR;
+  }
+
+  /**
+   * Returns the size of chunks which splits given number of elements evenly
+   * among the available processors.
+   * 
+   * @param size
+   *          the number of elements
+   * @return the size of chunks
+   */
+  static int chunkSize(int size) {
+    int chunks = PARALLELISM * 4;
+    return Math.max(MIN_CHUNK_SIZE, (size + chunks - 1) / chunks);
+  }
+
+  /**
+   * Returns the number of chunks of given number of elements.
+   * 
+   * @param size
+   *          the number of elements
+   * @param chunkSize
+   *          the size of chunks
+   * @return the number of chunks
+   */
+  static int chunkCount(int size, int chunkSize) {
+    return (size + chunkSize - 1) / chunkSize;
+  }
+
+  /**
+   * A task which processes one chunk.
+   */
+  static abstract class ChunkTask {
+
+    /**
+     * Processes the chunk of given index.
+     * 
+     * @param chunk
+     *          the index of chunk
+     * @param from
+     *          the first index of elements, inclusive
+     * @param to
+     *          the last index of elements, exclusive
+     * @throws Exception
+     *           if the chunk can't be processed
+     */
+    abstract void run(int chunk, int from, int to) throws Exception;
+
+  }
+
+  /**
+   * Processes all chunks of given number of elements and waits for them. The
+   * first failure is rethrown on the calling thread after all claimed chunks
+   * are done, checked exceptions other than {@link IOException} are wrapped in
+   * a {@link RuntimeException}.
+   * 
+   * @param size
+   *          the number of elements
+   * @param chunkSize
+   *          the size of chunks
+   * @param executor
+   *          a {@link Executor}, or null to use the shared one
+   * @param task
+   *          a {@link ChunkTask}
+   * @throws IOException
+   *           if any chunk fails with an {@link IOException}
+   */
+  static void run(final int size, final int chunkSize, Executor executor,
+      final ChunkTask task) throws IOException {
+    final int chunks = chunkCount(size, chunkSize);
+    final AtomicInteger next = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(chunks);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Runnable worker = new Runnable() {
+
+      @Override
+      public void run() {
+        int chunk;
+        while ((chunk = next.getAndIncrement()) < chunks) {
+          try {
+            if (failure.get() == null) {
+              int from = chunk * chunkSize;
+              task.run(chunk, from, Math.min(size, from + chunkSize));
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            done.countDown();
+          }
+        }
+      }
+
+    };
+
+    if (executor == null) executor = defaultExecutor();
+    int workers = Math.min(PARALLELISM, chunks) - 1;
+    for (int i = 0; i < workers; i++) {
+      try {
+        executor.execute(worker);
+      } catch (RejectedExecutionException e) {
+        break;
+      }
+    }
+    worker.run();
+    Uninterruptibles.awaitUninterruptibly(done);
+
+    Throwable e = failure.get();
+    if (e != null) {
+      Throwables.propagateIfPossible(e, IOException.class);
+      throw new RuntimeException(e);
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Charsets;
+
+/**
+ * 
+ * {@link ParallelDocumentWriter} writes a {@link ResourcesDocument} whose
+ * primary data is serialized in chunks concurrently. Each chunk is written as
+ * a JSON array into its own buffer, then the chunks are stitched in order into
+ * the data array of the document, so the output is byte-identical to the
+ * sequential one.<br>
+ * <br>
+ * Documents which are too small to split, subclasses of
+ * {@link ResourcesDocument} other than its frozen copies and writers which
+ * don't write compact JSON, ex: with a pretty printer, are written
+ * sequentially.
+ *
+ */
+final class ParallelDocumentWriter {
+
+  private static final byte[] DATA_START =
+      "{\"data\":[".getBytes(Charsets.UTF_8);
+
+  private ParallelDocumentWriter() {}
+
+  /**
+   * Writes given document into an {@link OutputStream}. The stream is flushed
+   * but not closed.
+   * 
+   * @param document
+   *          a {@link ResourcesDocument}
+   * @param out
+   *          an {@link OutputStream}
+   * @param executor
+   *          a {@link Executor}, or null to use the shared worker pool
+   * @throws IOException
+   *           if the JSON can't be written
+   */
+  static void write(ResourcesDocument<?> document, OutputStream out,
+      Executor executor) throws IOException {
+    ObjectMapperSnapshot snapshot = ObjectMapperFactory.getSnapshot();
+    Class<?> documentClass = ResourcesDocument.isFrozen(document)
+        ? ResourcesDocument.class : document.getClass();
+    ObjectWriter documentWriter = snapshot.getObjectWriter(documentClass);
+    final List<?> data = document.dataOrEmpty();
+    final int chunkSize = ParallelChunks.chunkSize(data.size());
+    if (data.size() <= chunkSize
+        || documentClass != ResourcesDocument.class) {
+      documentWriter.writeValue(out, document);
+      return;
+    }
+
+    byte[] shell = documentWriter.writeValueAsBytes(document.shell());
+    if (!isCompact(shell)) {
+      documentWriter.writeValue(out, document);
+      return;
+    }
+
+    final ObjectWriter dataWriter = snapshot.getObjectWriter(List.class);
+    final byte[][] chunks =
+        new byte[ParallelChunks.chunkCount(data.size(), chunkSize)][];
+    ParallelChunks.run(data.size(), chunkSize, executor,
+        new ParallelChunks.ChunkTask() {
+
+          @Override
+          void run(int chunk, int from, int to) throws IOException {
+            chunks[chunk] =
+                dataWriter.writeValueAsBytes(data.subList(from, to));
+          }
+
+        });
+
+    out.write(shell, 0, DATA_START.length);
+    for (int i = 0; i < chunks.length; i++) {
+      if (i > 0) out.write(',');
+      out.write(chunks[i], 1, chunks[i].length - 2);
+    }
+    out.write(shell, DATA_START.length, shell.length - DATA_START.length);
+    out.flush();
+  }
+
+  private static boolean isCompact(byte[] shell) {
+    if (shell.length <= DATA_START.length
+        || shell[DATA_START.length] != ']') {
+      return false;
+    }
+    for (int i = 0; i < DATA_START.length; i++) {
+      if (shell[i] != DATA_START[i]) return false;
+    }
+    return true;
+  }
+
+}
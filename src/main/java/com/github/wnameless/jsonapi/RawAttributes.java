@@ -0,0 +1,279 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Charsets;
+
+/**
+ * 
+ * {@link RawAttributes} is an attributes object which is already encoded as
+ * JSON, ex: a JSONB column or a cached upstream response. It is kept as UTF-8
+ * bytes and written verbatim into the attributes member of a
+ * {@link ResourceObject}, so the JSON is neither parsed nor bound to any POJO.
+ * Reading a {@link ResourceObject}&lt;{@link RawAttributes}&gt; captures the
+ * attributes as UTF-8 JSON without binding them as well.<br>
+ * <br>
+ * {@link SparseFieldsets} are not applied to {@link RawAttributes}.
+ *
+ */
+@JsonSerialize(using = RawAttributesSerializer.class)
+@JsonDeserialize(using = RawAttributesDeserializer.class)
+public final class RawAttributes {
+
+  static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final byte[] json;
+
+  private RawAttributes(byte[] json) {
+    this.json = json;
+  }
+
+  static RawAttributes wrap(byte[] json) {
+    return new RawAttributes(json);
+  }
+
+  /**
+   * Creates a {@link RawAttributes} of a JSON object without validating it.
+   * 
+   * @param json
+   *          a JSON object
+   * @return a {@link RawAttributes}
+   */
+  public static RawAttributes of(String json) {
+    return new RawAttributes(checkNotNull(json).getBytes(Charsets.UTF_8));
+  }
+
+  /**
+   * Creates a {@link RawAttributes} of a JSON object encoded in UTF-8 without
+   * validating it. The bytes are copied once and never decoded.
+   * 
+   * @param json
+   *          a JSON object in UTF-8
+   * @return a {@link RawAttributes}
+   */
+  public static RawAttributes of(byte[] json) {
+    return new RawAttributes(checkNotNull(json).clone());
+  }
+
+  /**
+   * Creates a {@link RawAttributes} of a JSON object after validating that it
+   * is exactly one well-formed JSON object.
+   * 
+   * @param json
+   *          a JSON object
+   * @return a {@link RawAttributes}
+   * @throws IllegalArgumentException
+   *           if the JSON is not a well-formed JSON object
+   */
+  public static RawAttributes validated(String json) {
+    RawAttributes raw = of(json);
+    checkObject(raw.json);
+    return raw;
+  }
+
+  /**
+   * Creates a {@link RawAttributes} of a JSON object encoded in UTF-8 after
+   * validating that it is exactly one well-formed JSON object.
+   * 
+   * @param json
+   *          a JSON object in UTF-8
+   * @return a {@link RawAttributes}
+   * @throws IllegalArgumentException
+   *           if the JSON is not a well-formed JSON object
+   */
+  public static RawAttributes validated(byte[] json) {
+    RawAttributes raw = of(json);
+    checkObject(raw.json);
+    return raw;
+  }
+
+  private static void checkObject(byte[] json) {
+    try {
+      JsonParser parser = JSON_FACTORY.createParser(json);
+      try {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+          throw new IllegalArgumentException(
+              "Attributes must be a JSON object");
+        }
+        parser.skipChildren();
+        if (parser.nextToken() != null) {
+          throw new IllegalArgumentException(
+              "Attributes must be a single JSON object");
+        }
+      } finally {
+        parser.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Returns the JSON of attributes. The UTF-8 bytes are decoded on each call.
+   * 
+   * @return a JSON object
+   */
+  public String getJson() {
+    return new String(json, Charsets.UTF_8);
+  }
+
+  /**
+   * Returns the JSON of attributes encoded in UTF-8.
+   * 
+   * @return a JSON object in UTF-8
+   */
+  public byte[] toBytes() {
+    return json.clone();
+  }
+
+  byte[] bytes() {
+    return json;
+  }
+
+  SerializableString serialized() {
+    return new Utf8Json(json);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) return true;
+    if (!(other instanceof RawAttributes)) return false;
+    RawAttributes castOther = (RawAttributes) other;
+    return Arrays.equals(json, castOther.json);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(json);
+  }
+
+  @Override
+  public String toString() {
+    return getJson();
+  }
+
+  /**
+   * 
+   * {@link Utf8Json} exposes the UTF-8 bytes of a {@link RawAttributes} to a
+   * UTF-8 generator, which copies the unquoted bytes straight into its output
+   * buffer. Only the quoted forms, which raw JSON never needs, are encoded
+   * through a {@link SerializedString}.
+   *
+   */
+  static final class Utf8Json implements SerializableString {
+
+    private final byte[] utf8;
+
+    Utf8Json(byte[] utf8) {
+      this.utf8 = utf8;
+    }
+
+    private SerializedString quoted() {
+      return new SerializedString(getValue());
+    }
+
+    @Override
+    public String getValue() {
+      return new String(utf8, Charsets.UTF_8);
+    }
+
+    @Override
+    public int charLength() {
+      return getValue().length();
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+      return quoted().asQuotedChars();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+      return utf8;
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+      return quoted().asQuotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+      return quoted().appendQuotedUTF8(buffer, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+      return quoted().appendQuoted(buffer, offset);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+      if (offset + utf8.length > buffer.length) return -1;
+      System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+      return utf8.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+      String value = getValue();
+      if (offset + value.length() > buffer.length) return -1;
+      value.getChars(0, value.length(), buffer, offset);
+      return value.length();
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+      return quoted().writeQuotedUTF8(out);
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+      out.write(utf8);
+      return utf8.length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+      return quoted().putQuotedUTF8(buffer);
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) throws IOException {
+      if (utf8.length > buffer.remaining()) return -1;
+      buffer.put(utf8);
+      return utf8.length;
+    }
+
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ * 
+ * {@link RawAttributesDeserializer} captures an attributes object as
+ * {@link RawAttributes}. Tokens are streamed from the parser into a UTF-8 JSON
+ * generator backed by a byte buffer, so neither a tree, a POJO nor a String is
+ * built for the attributes.
+ *
+ */
+final class RawAttributesDeserializer extends JsonDeserializer<RawAttributes> {
+
+  @Override
+  public RawAttributes deserialize(JsonParser p, DeserializationContext ctxt)
+      throws IOException {
+    if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+      throw JsonMappingException.from(p, "Attributes must be a JSON object");
+    }
+
+    ByteArrayBuilder bytes = new ByteArrayBuilder();
+    try {
+      JsonGenerator gen =
+          RawAttributes.JSON_FACTORY.createGenerator(bytes, JsonEncoding.UTF8);
+      gen.copyCurrentStructure(p);
+      gen.close();
+      return RawAttributes.wrap(bytes.toByteArray());
+    } finally {
+      bytes.release();
+    }
+  }
+
+}
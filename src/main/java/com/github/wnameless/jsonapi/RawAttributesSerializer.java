@@ -0,0 +1,59 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * 
+ * {@link RawAttributesSerializer} writes {@link RawAttributes} verbatim. A
+ * UTF-8 JSON generator copies the stored bytes as they are into its output,
+ * while a character based JSON generator gets them decoded once. Other
+ * outputs, ex: Smile or a token buffer, can't take raw JSON, so the JSON is
+ * streamed into them token by token.
+ *
+ */
+final class RawAttributesSerializer extends JsonSerializer<RawAttributes> {
+
+  @Override
+  public void serialize(RawAttributes value, JsonGenerator gen,
+      SerializerProvider provider) throws IOException {
+    if (gen instanceof UTF8JsonGenerator) {
+      gen.writeRawValue(value.serialized());
+    } else if (gen instanceof JsonGeneratorImpl) {
+      gen.writeRawValue(value.getJson());
+    } else {
+      JsonParser parser =
+          RawAttributes.JSON_FACTORY.createParser(value.bytes());
+      try {
+        parser.nextToken();
+        gen.copyCurrentStructure(parser);
+      } finally {
+        parser.close();
+      }
+    }
+  }
+
+}
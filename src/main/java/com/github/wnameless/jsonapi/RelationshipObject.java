@@ -19,13 +19,23 @@ package com.github.wnameless.jsonapi;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -40,7 +50,10 @@ import com.google.common.base.Objects;
  *
  */
 @JsonInclude(NON_DEFAULT)
-public class RelationshipObject<T> implements Jsonable<RelationshipObject<T>> {
+@JsonSerialize(using = RelationshipObjectSerializer.class)
+@JsonDeserialize(using = RelationshipObjectDeserializer.class)
+public class RelationshipObject<T>
+    implements StreamingJsonable<RelationshipObject<T>> {
 
   @Valid
   private Map<String, LinkObject> links;
@@ -48,6 +61,12 @@ public class RelationshipObject<T> implements Jsonable<RelationshipObject<T>> {
   @Valid
   private ResourceObject<T> data;
 
+  @Valid
+  private ResourceIdentifierObject identifier;
+
+  @Valid
+  private List<ResourceIdentifierObject> identifiers;
+
   @Valid
   private Object meta;
 
@@ -114,6 +133,92 @@ public class RelationshipObject<T> implements Jsonable<RelationshipObject<T>> {
     return this;
   }
 
+  /**
+   * Returns the resource identifier of a to-one relationship.
+   * 
+   * @return a {@link ResourceIdentifierObject}
+   */
+  public ResourceIdentifierObject getIdentifier() {
+    return identifier;
+  }
+
+  /**
+   * Sets the resource identifier of a to-one relationship. The resource
+   * linkage is written as the identifier only, so the related resource itself
+   * can be included in the document exactly once. It takes precedence over
+   * the data.
+   * 
+   * @param identifier
+   *          a {@link ResourceIdentifierObject}
+   */
+  public void setIdentifier(ResourceIdentifierObject identifier) {
+    this.identifier = identifier;
+  }
+
+  /**
+   * A chaining method for {@link #setIdentifier}.
+   * 
+   * @param identifier
+   *          a {@link ResourceIdentifierObject}
+   * @return this {@link RelationshipObject}
+   */
+  public RelationshipObject<T> withIdentifier(
+      ResourceIdentifierObject identifier) {
+    setIdentifier(identifier);
+    return this;
+  }
+
+  /**
+   * Returns the resource identifiers of a to-many relationship.
+   * 
+   * @return a list of {@link ResourceIdentifierObject}
+   */
+  public List<ResourceIdentifierObject> getIdentifiers() {
+    return identifiers;
+  }
+
+  /**
+   * Sets the resource identifiers of a to-many relationship. An empty list
+   * represents an empty to-many relationship. They take precedence over the
+   * identifier and the data.
+   * 
+   * @param identifiers
+   *          a list of {@link ResourceIdentifierObject}
+   */
+  public void setIdentifiers(List<ResourceIdentifierObject> identifiers) {
+    this.identifiers = identifiers;
+  }
+
+  /**
+   * A chaining method for {@link #setIdentifiers}.
+   * 
+   * @param identifiers
+   *          a list of {@link ResourceIdentifierObject}
+   * @return this {@link RelationshipObject}
+   */
+  public RelationshipObject<T> withIdentifiers(
+      List<ResourceIdentifierObject> identifiers) {
+    setIdentifiers(identifiers);
+    return this;
+  }
+
+  /**
+   * Returns the resource linkage as a list of {@link ResourceIdentifierObject}
+   * no matter it is set by {@link #setData}, {@link #setIdentifier} or
+   * {@link #setIdentifiers}.
+   * 
+   * @return an unmodifiable list of {@link ResourceIdentifierObject}
+   */
+  @JsonIgnore
+  public List<ResourceIdentifierObject> getLinkage() {
+    if (identifiers != null) return Collections.unmodifiableList(identifiers);
+    if (identifier != null) return Collections.singletonList(identifier);
+    if (data != null) {
+      return Collections.singletonList(ResourceIdentifierObject.of(data));
+    }
+    return Collections.emptyList();
+  }
+
   /**
    * Returns a meta object that contains non-standard meta-information about the
    * relationship.
@@ -147,6 +252,17 @@ public class RelationshipObject<T> implements Jsonable<RelationshipObject<T>> {
     return this;
   }
 
+  /**
+   * Returns a frozen copy of this {@link RelationshipObject} whose links and
+   * resource linkage are frozen as well. A frozen relationship is returned as
+   * is.
+   * 
+   * @return a frozen {@link RelationshipObject}
+   */
+  public RelationshipObject<T> freeze() {
+    return new Frozen<T>(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
@@ -154,29 +270,131 @@ public class RelationshipObject<T> implements Jsonable<RelationshipObject<T>> {
     RelationshipObject<?> castOther = (RelationshipObject<?>) other;
     return Objects.equal(links, castOther.links)
         && Objects.equal(data, castOther.data)
+        && Objects.equal(identifier, castOther.identifier)
+        && Objects.equal(identifiers, castOther.identifiers)
         && Objects.equal(meta, castOther.meta);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(links, data, meta);
+    return Objects.hashCode(links, data, identifier, identifiers, meta);
   }
 
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this).add("links", links)
-        .add("data", data).add("meta", meta).toString();
+        .add("data", data).add("identifier", identifier)
+        .add("identifiers", identifiers).add("meta", meta).toString();
   }
 
   @Override
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link RelationshipObject} which can't be modified.
+   *
+   */
+  private static final class Frozen<T> extends RelationshipObject<T> {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(RelationshipObject<T> source) {
+      RelationshipObject<T> self = this;
+      self.links = FrozenCollections.links(source.links);
+      self.data = source.data == null ? null : source.data.freeze();
+      self.identifier = source.identifier == null ? null
+          : source.identifier.freeze();
+      self.identifiers = FrozenCollections.identifiers(source.identifiers);
+      self.meta = source.meta;
+    }
+
+    @Override
+    public RelationshipObject<T> freeze() {
+      return this;
+    }
+
+    @Override
+    public void setLinks(Map<String, LinkObject> links) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setData(ResourceObject<T> data) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setIdentifier(ResourceIdentifierObject identifier) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setIdentifiers(List<ResourceIdentifierObject> identifiers) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
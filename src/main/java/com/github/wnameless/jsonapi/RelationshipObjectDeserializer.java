@@ -0,0 +1,128 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * 
+ * {@link RelationshipObjectDeserializer} reads {@link RelationshipObject}s. An
+ * array of resource linkage is read as resource identifiers of a to-many
+ * relationship. A single resource linkage is streamed into a
+ * {@link ResourceObject} of the attribute type of the relationship as before,
+ * so {@link RelationshipObject#getData} keeps working for existing readers.
+ * Use {@link RelationshipObject#getLinkage} to read both shapes alike.
+ *
+ */
+final class RelationshipObjectDeserializer
+    extends StdDeserializer<RelationshipObject<?>>
+    implements ContextualDeserializer {
+
+  private static final long serialVersionUID = 1L;
+
+  private final JavaType dataType;
+
+  RelationshipObjectDeserializer() {
+    this(null);
+  }
+
+  private RelationshipObjectDeserializer(JavaType dataType) {
+    super(RelationshipObject.class);
+    this.dataType = dataType;
+  }
+
+  @Override
+  public JsonDeserializer<?> createContextual(DeserializationContext ctxt,
+      BeanProperty property) throws JsonMappingException {
+    JavaType type = ctxt.getContextualType();
+    if (type == null && property != null) type = property.getType();
+    TypeFactory typeFactory = ctxt.getTypeFactory();
+    JavaType attributeType = type == null ? null : type.containedType(0);
+    if (attributeType == null) {
+      attributeType = typeFactory.constructType(Object.class);
+    }
+    return new RelationshipObjectDeserializer(typeFactory
+        .constructParametricType(ResourceObject.class, attributeType));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public RelationshipObject<?> deserialize(JsonParser p,
+      DeserializationContext ctxt) throws IOException {
+    RelationshipObject<Object> relationship = new RelationshipObject<Object>();
+    JsonToken token = p.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) token = p.nextToken();
+    if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+      throw JsonMappingException.from(p,
+          "Expected a relationship object but found " + token);
+    }
+
+    TypeFactory typeFactory = ctxt.getTypeFactory();
+    for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+      String name = p.getCurrentName();
+      token = p.nextToken();
+      if ("links".equals(name)) {
+        relationship.setLinks(
+            (LinkedHashMap<String, LinkObject>) ctxt.readValue(p, typeFactory
+                .constructMapType(LinkedHashMap.class, String.class,
+                    LinkObject.class)));
+      } else if ("meta".equals(name)) {
+        relationship.setMeta(ctxt.readValue(p, Object.class));
+      } else if ("data".equals(name)) {
+        readData(relationship, p, ctxt);
+      } else {
+        handleUnknownProperty(p, ctxt, relationship, name);
+      }
+    }
+    return relationship;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readData(RelationshipObject<Object> relationship, JsonParser p,
+      DeserializationContext ctxt) throws IOException {
+    JsonToken token = p.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) return;
+
+    if (token == JsonToken.START_ARRAY) {
+      relationship.setIdentifiers(
+          (ArrayList<ResourceIdentifierObject>) ctxt.readValue(p,
+              ctxt.getTypeFactory().constructCollectionType(ArrayList.class,
+                  ResourceIdentifierObject.class)));
+      return;
+    }
+
+    JavaType type = dataType == null
+        ? ctxt.getTypeFactory().constructType(ResourceObject.class)
+        : dataType;
+    relationship.setData((ResourceObject<Object>) ctxt.readValue(p, type));
+  }
+
+}
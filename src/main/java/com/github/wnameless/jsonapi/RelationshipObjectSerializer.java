@@ -0,0 +1,89 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * 
+ * {@link RelationshipObjectSerializer} writes {@link RelationshipObject}s. The
+ * resource linkage is written as the data member, whichever form it is set
+ * in. Members which are null are omitted.
+ *
+ */
+final class RelationshipObjectSerializer
+    extends JsonSerializer<RelationshipObject<?>> {
+
+  @Override
+  public void serialize(RelationshipObject<?> value, JsonGenerator gen,
+      SerializerProvider provider) throws IOException {
+    serialize(value, gen, provider, null, null, null);
+  }
+
+  /**
+   * Writes a {@link RelationshipObject} whose links are generated by
+   * {@link LinkTemplates}.
+   * 
+   * @param value
+   *          a {@link RelationshipObject}
+   * @param gen
+   *          a {@link JsonGenerator}
+   * @param provider
+   *          a {@link SerializerProvider}
+   * @param typeLinks
+   *          the compiled {@link LinkTemplates} of the resource type, null if
+   *          none
+   * @param id
+   *          the id of the resource
+   * @param rel
+   *          the name of the relationship
+   * @throws IOException
+   *           if the relationship can't be written
+   */
+  static void serialize(RelationshipObject<?> value, JsonGenerator gen,
+      SerializerProvider provider, LinkTemplates.TypeLinks typeLinks,
+      String id, String rel) throws IOException {
+    gen.writeStartObject();
+    if (typeLinks != null) {
+      typeLinks.writeRelationshipLinks(id, rel, value.getLinks(), gen,
+          provider);
+    } else if (value.getLinks() != null) {
+      provider.defaultSerializeField("links", value.getLinks(), gen);
+    }
+    if (value.getIdentifiers() != null) {
+      gen.writeArrayFieldStart("data");
+      for (ResourceIdentifierObject identifier : value.getIdentifiers()) {
+        provider.defaultSerializeValue(identifier, gen);
+      }
+      gen.writeEndArray();
+    } else if (value.getIdentifier() != null) {
+      provider.defaultSerializeField("data", value.getIdentifier(), gen);
+    } else if (value.getData() != null) {
+      provider.defaultSerializeField("data", value.getData(), gen);
+    }
+    if (value.getMeta() != null) {
+      provider.defaultSerializeField("meta", value.getMeta(), gen);
+    }
+    gen.writeEndObject();
+  }
+
+}
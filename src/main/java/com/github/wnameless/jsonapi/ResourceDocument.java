@@ -19,17 +19,26 @@ package com.github.wnameless.jsonapi;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newLinkedHashMap;
-
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -44,7 +53,8 @@ import com.google.common.base.Objects;
  */
 @JsonInclude(NON_DEFAULT)
 public class ResourceDocument<T>
-    implements Document<ResourceObject<T>>, Jsonable<ResourceDocument<T>> {
+    implements Document<ResourceObject<T>>,
+    StreamingJsonable<ResourceDocument<T>> {
 
   @JsonInclude(ALWAYS)
   @Valid
@@ -56,11 +66,13 @@ public class ResourceDocument<T>
   @Valid
   private JsonApiObject jsonapi;
 
+  @JsonProperty
   @Valid
-  private Map<String, LinkObject> links = newLinkedHashMap();
+  private Map<String, LinkObject> links = emptyMap();
 
+  @JsonProperty
   @Valid
-  private List<ResourceObject<?>> included = newArrayList();
+  private List<ResourceObject<?>> included = emptyList();
 
   @Override
   public ResourceObject<T> getData() {
@@ -136,8 +148,17 @@ public class ResourceDocument<T>
     return this;
   }
 
+  /**
+   * Returns {@link LinkObject}s related to the primary data.
+   * The map is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return {@link LinkObject}s
+   */
   @Override
+  @JsonIgnore
   public Map<String, LinkObject> getLinks() {
+    if (links == Collections.EMPTY_MAP) links = newLinkedHashMap();
     return links;
   }
 
@@ -158,8 +179,20 @@ public class ResourceDocument<T>
     return this;
   }
 
+  /**
+   * Returns a list of {@link ResourceObject}s that are related to the primary
+   * data and/or each other.
+   * The list is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return a list of {@link ResourceObject}s
+   */
   @Override
+  @JsonIgnore
   public List<ResourceObject<?>> getIncluded() {
+    if (included == Collections.EMPTY_LIST) {
+      included = new IncludedResources();
+    }
     return included;
   }
 
@@ -180,16 +213,75 @@ public class ResourceDocument<T>
     return this;
   }
 
+  /**
+   * Includes a {@link ResourceObject} which is related to the primary data.
+   * A resource which is already included is merged into the existing one, and
+   * a resource of the primary data is never included. A list given to
+   * {@link #setIncluded} is kept as is until the first call, which copies it
+   * into an {@link IncludedResources} and merges its duplicates.
+   * 
+   * @param resource
+   *          a {@link ResourceObject}
+   * @return this {@link ResourceDocument}
+   */
+  public ResourceDocument<T> include(ResourceObject<?> resource) {
+    IncludedResources includedResources = includedResources();
+    if (data != null) {
+      includedResources.exclude(data.getType(), data.getId());
+    }
+    includedResources.include(resource);
+    return this;
+  }
+
+  private IncludedResources includedResources() {
+    if (!(included instanceof IncludedResources)) {
+      included = included == null ? new IncludedResources()
+          : new IncludedResources(included);
+    }
+    return (IncludedResources) included;
+  }
+
+  Map<String, LinkObject> linksOrEmpty() {
+    return links == null ? Collections.<String, LinkObject> emptyMap() : links;
+  }
+
+  List<ResourceObject<?>> includedOrEmpty() {
+    return included == null ? Collections.<ResourceObject<?>> emptyList()
+        : included;
+  }
+
+  static boolean isFrozen(ResourceDocument<?> document) {
+    return document instanceof Frozen;
+  }
+
+  /**
+   * Returns a frozen snapshot of this document which can be cached and read
+   * by many threads without locking. The primary data, links and included
+   * resources are frozen recursively, objects which are frozen already are
+   * shared instead of copied, and the hash code is computed only once, so a
+   * frozen document is a cheap cache key.<br>
+   * <br>
+   * A snapshot keeps its state in the non-final fields it inherits, so it
+   * gets no final field guarantee and has to be published safely, ex: through
+   * a final or volatile field or a concurrent cache, before other threads may
+   * read it.
+   * 
+   * @return a frozen {@link ResourceDocument}
+   */
+  public ResourceDocument<T> freeze() {
+    return new Frozen<T>(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
     if (!(other instanceof ResourceDocument)) return false;
     ResourceDocument<?> castOther = (ResourceDocument<?>) other;
-    return Objects.equal(data, castOther.getData())
-        && Objects.equal(meta, castOther.getMeta())
-        && Objects.equal(jsonapi, castOther.getJsonapi())
-        && Objects.equal(links, castOther.getLinks())
-        && Objects.equal(included, castOther.getIncluded());
+    return Objects.equal(data, castOther.data)
+        && Objects.equal(meta, castOther.meta)
+        && Objects.equal(jsonapi, castOther.jsonapi)
+        && Objects.equal(links, castOther.links)
+        && Objects.equal(included, castOther.included);
   }
 
   @Override
@@ -208,11 +300,114 @@ public class ResourceDocument<T>
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link ResourceDocument} which can't be modified.
+   *
+   */
+  private static final class Frozen<T> extends ResourceDocument<T> {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(ResourceDocument<T> source) {
+      ResourceDocument<T> self = this;
+      self.data = source.data == null ? null : source.data.freeze();
+      self.meta = source.meta;
+      self.jsonapi = source.jsonapi == null ? null : source.jsonapi.freeze();
+      self.links = FrozenCollections.links(source.links);
+      self.included = FrozenCollections.included(source.included);
+    }
+
+    @Override
+    public ResourceDocument<T> freeze() {
+      return this;
+    }
+
+    @Override
+    public void setData(ResourceObject<T> data) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setJsonapi(JsonApiObject jsonapi) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setLinks(Map<String, LinkObject> links) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setIncluded(List<ResourceObject<?>> included) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public ResourceDocument<T> include(ResourceObject<?> resource) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
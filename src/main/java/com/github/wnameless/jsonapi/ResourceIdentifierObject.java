@@ -0,0 +1,295 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.wnameless.json.StreamingJsonable;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * 
+ * {@link ResourceIdentifierObject} is designed by the resource identifier
+ * object in JSON API specification. It only identifies a resource by its type
+ * and id, so it is the compact form of resource linkage within relationships.
+ * 
+ * @see <a href=
+ *      "http://jsonapi.org/format/#document-resource-identifier-objects">JSON
+ *      API Specification (v1.0) Resource Identifier Objects</a>
+ *
+ */
+@JsonInclude(NON_DEFAULT)
+public class ResourceIdentifierObject
+    implements StreamingJsonable<ResourceIdentifierObject> {
+
+  @NotNull
+  private String type;
+
+  @NotNull
+  private String id;
+
+  @Valid
+  private Object meta;
+
+  /**
+   * Creates a {@link ResourceIdentifierObject} which identifies given resource.
+   * 
+   * @param resource
+   *          a {@link ResourceObject}
+   * @return a {@link ResourceIdentifierObject}
+   */
+  public static ResourceIdentifierObject of(ResourceObject<?> resource) {
+    return new ResourceIdentifierObject().withType(resource.getType())
+        .withId(resource.getId());
+  }
+
+  /**
+   * Returns the type of resource.
+   * 
+   * @return the type of resource
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Sets the type of resource.
+   * 
+   * @param type
+   *          the type of resource
+   */
+  public void setType(String type) {
+    this.type = ResourceTypes.canonicalize(type);
+  }
+
+  /**
+   * A chaining method for {@link #setType}.
+   * 
+   * @param type
+   *          the type of resource
+   * @return this {@link ResourceIdentifierObject}
+   */
+  public ResourceIdentifierObject withType(String type) {
+    setType(type);
+    return this;
+  }
+
+  /**
+   * Returns the id of resource.
+   * 
+   * @return the id of resource
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Sets the id of resource.
+   * 
+   * @param id
+   *          the id of resource
+   */
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  /**
+   * A chaining method for {@link #setId}.
+   * 
+   * @param id
+   *          the id of resource
+   * @return this {@link ResourceIdentifierObject}
+   */
+  public ResourceIdentifierObject withId(String id) {
+    setId(id);
+    return this;
+  }
+
+  /**
+   * Returns a meta object.
+   * 
+   * @return a meta object
+   */
+  public Object getMeta() {
+    return meta;
+  }
+
+  /**
+   * Sets a meta object.
+   * 
+   * @param meta
+   *          a meta object
+   */
+  public void setMeta(Object meta) {
+    this.meta = meta;
+  }
+
+  /**
+   * A chaining method for {@link #setMeta}.
+   * 
+   * @param meta
+   *          a meta object
+   * @return this {@link ResourceIdentifierObject}
+   */
+  public ResourceIdentifierObject withMeta(Object meta) {
+    setMeta(meta);
+    return this;
+  }
+
+  /**
+   * Returns a frozen copy of this {@link ResourceIdentifierObject}, or this
+   * one if it is frozen already.
+   * 
+   * @return a frozen {@link ResourceIdentifierObject}
+   */
+  public ResourceIdentifierObject freeze() {
+    return new Frozen(this);
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) return true;
+    if (!(other instanceof ResourceIdentifierObject)) return false;
+    ResourceIdentifierObject castOther = (ResourceIdentifierObject) other;
+    return Objects.equal(type, castOther.type)
+        && Objects.equal(id, castOther.id)
+        && Objects.equal(meta, castOther.meta);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(type, id, meta);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this).add("type", type).add("id", id)
+        .add("meta", meta).toString();
+  }
+
+  @Override
+  public String toJson() {
+    String json = null;
+    try {
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return json;
+  }
+
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link ResourceIdentifierObject} which can't be
+   * modified.
+   *
+   */
+  private static final class Frozen extends ResourceIdentifierObject {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(ResourceIdentifierObject source) {
+      ResourceIdentifierObject self = this;
+      self.type = source.type;
+      self.id = source.id;
+      self.meta = source.meta;
+    }
+
+    @Override
+    public ResourceIdentifierObject freeze() {
+      return this;
+    }
+
+    @Override
+    public void setType(String type) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setId(String id) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import com.google.common.base.Objects;
+
+/**
+ * 
+ * {@link ResourceKey} is the (type, id) pair which uniquely identifies a
+ * resource within a JSON API document.
+ *
+ */
+final class ResourceKey {
+
+  private final String type;
+
+  private final String id;
+
+  private final int hash;
+
+  ResourceKey(String type, String id) {
+    this.type = type;
+    this.id = id;
+    hash = 31 * type.hashCode() + id.hashCode();
+  }
+
+  /**
+   * Returns the {@link ResourceKey} of given resource, or null if the resource
+   * misses its type or id and therefore can't be identified.
+   * 
+   * @param resource
+   *          a {@link ResourceObject}
+   * @return a {@link ResourceKey} or null
+   */
+  static ResourceKey of(ResourceObject<?> resource) {
+    if (resource == null) return null;
+    return of(resource.getType(), resource.getId());
+  }
+
+  /**
+   * Returns the {@link ResourceKey} of given type and id, or null if any of
+   * them is null.
+   * 
+   * @param type
+   *          the type of resource
+   * @param id
+   *          the id of resource
+   * @return a {@link ResourceKey} or null
+   */
+  static ResourceKey of(String type, String id) {
+    if (type == null || id == null) return null;
+    return new ResourceKey(type, id);
+  }
+
+  String getType() {
+    return type;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) return true;
+    if (!(other instanceof ResourceKey)) return false;
+    ResourceKey castOther = (ResourceKey) other;
+    return hash == castOther.hash && Objects.equal(type, castOther.type)
+        && Objects.equal(id, castOther.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return type + ":" + id;
+  }
+
+}
@@ -21,16 +21,27 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newLinkedHashMap;
-
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -44,7 +55,8 @@ import com.google.common.base.Objects;
  *
  */
 @JsonInclude(NON_DEFAULT)
-public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
+@JsonSerialize(using = ResourceObjectSerializer.class)
+public class ResourceObject<T> implements StreamingJsonable<ResourceObject<T>> {
 
   @JsonInclude(ALWAYS)
   @NotNull
@@ -55,14 +67,17 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
   @Valid
   private T attributes;
 
+  @JsonProperty
   @Valid
-  private Map<String, RelationshipObject<?>> relationships = newLinkedHashMap();
+  private Map<String, RelationshipObject<?>> relationships = emptyMap();
 
+  @JsonProperty
   @Valid
-  private Map<String, LinkObject> links = newLinkedHashMap();
+  private Map<String, LinkObject> links = emptyMap();
 
+  @JsonProperty
   @Valid
-  private List<ResourceObject<?>> included = newArrayList();
+  private List<ResourceObject<?>> included = emptyList();
 
   @Valid
   private Object meta;
@@ -83,7 +98,7 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
    *          the type of resource
    */
   public void setType(String type) {
-    this.type = type;
+    this.type = ResourceTypes.canonicalize(type);
   }
 
   /**
@@ -163,10 +178,16 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
   /**
    * Returns {@link RelationshipObject}s describing relationships between the
    * resource and other JSON API resources.
+   * The map is allocated on the first call, which writes this object, so
+   * don't call it while other threads read or serialize the same object.
    * 
    * @return {@link RelationshipObject}s
    */
+  @JsonIgnore
   public Map<String, RelationshipObject<?>> getRelationships() {
+    if (relationships == Collections.EMPTY_MAP) {
+      relationships = newLinkedHashMap();
+    }
     return relationships;
   }
 
@@ -197,10 +218,14 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
 
   /**
    * Returns {@link LinkObject}s link related to the resource.
+   * The map is allocated on the first call, which writes this object, so
+   * don't call it while other threads read or serialize the same object.
    * 
    * @return a map between link name and {@link LinkObject}s
    */
+  @JsonIgnore
   public Map<String, LinkObject> getLinks() {
+    if (links == Collections.EMPTY_MAP) links = newLinkedHashMap();
     return links;
   }
 
@@ -228,10 +253,14 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
 
   /**
    * Returns list of {@link ResourceObject}.
+   * The list is allocated on the first call, which writes this object, so
+   * don't call it while other threads read or serialize the same object.
    * 
    * @return a list of {@link ResourceObject}
    */
+  @JsonIgnore
   public List<ResourceObject<?>> getIncluded() {
+    if (included == Collections.EMPTY_LIST) included = newArrayList();
     return included;
   }
 
@@ -288,6 +317,59 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
     return this;
   }
 
+  Map<String, RelationshipObject<?>> relationshipsOrEmpty() {
+    return relationships == null
+        ? Collections.<String, RelationshipObject<?>> emptyMap()
+        : relationships;
+  }
+
+  Map<String, LinkObject> linksOrEmpty() {
+    return links == null ? Collections.<String, LinkObject> emptyMap() : links;
+  }
+
+  List<ResourceObject<?>> includedOrEmpty() {
+    return included == null ? Collections.<ResourceObject<?>> emptyList()
+        : included;
+  }
+
+  static boolean isFrozen(ResourceObject<?> resource) {
+    return resource instanceof Frozen;
+  }
+
+  /**
+   * Returns a modifiable copy of this {@link ResourceObject} whose
+   * relationships and links are copied into new maps, while the other members
+   * are shared.
+   * 
+   * @return a modifiable {@link ResourceObject}
+   */
+  ResourceObject<T> mutableCopy() {
+    ResourceObject<T> copy = new ResourceObject<T>();
+    copy.type = type;
+    copy.id = id;
+    copy.attributes = attributes;
+    if (!relationshipsOrEmpty().isEmpty()) {
+      copy.relationships = newLinkedHashMap(relationships);
+    }
+    if (!linksOrEmpty().isEmpty()) copy.links = newLinkedHashMap(links);
+    copy.included = included;
+    copy.meta = meta;
+    return copy;
+  }
+
+  /**
+   * Returns a frozen copy of this {@link ResourceObject}. Setters of the copy
+   * throw UnsupportedOperationException, and its relationships, links and
+   * included resources are unmodifiable and frozen as well. Attributes and
+   * meta are shared as they are, so they should be immutable too. A frozen
+   * resource is returned as is.
+   * 
+   * @return a frozen {@link ResourceObject}
+   */
+  public ResourceObject<T> freeze() {
+    return new Frozen<T>(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
@@ -320,11 +402,123 @@ public class ResourceObject<T> implements Jsonable<ResourceObject<T>> {
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link ResourceObject} which can't be modified.
+   *
+   */
+  private static final class Frozen<T> extends ResourceObject<T> {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(ResourceObject<T> source) {
+      ResourceObject<T> self = this;
+      self.type = source.type;
+      self.id = source.id;
+      self.attributes = source.attributes;
+      self.relationships =
+          FrozenCollections.relationships(source.relationships);
+      self.links = FrozenCollections.links(source.links);
+      self.included = FrozenCollections.included(source.included);
+      self.meta = source.meta;
+    }
+
+    @Override
+    public ResourceObject<T> freeze() {
+      return this;
+    }
+
+    @Override
+    public void setType(String type) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setId(String id) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setAttributes(T attributes) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setRelationships(
+        Map<String, RelationshipObject<?>> relationships) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setLinks(Map<String, LinkObject> links) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setIncluded(List<ResourceObject<?>> included) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
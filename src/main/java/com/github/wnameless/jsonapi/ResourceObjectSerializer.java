@@ -0,0 +1,204 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+
+/**
+ * 
+ * {@link ResourceObjectSerializer} writes {@link ResourceObject}s. Members
+ * which are null or empty are omitted, except the type member which is
+ * always written. The {@link SparseFieldsets} attached to the writer, if any,
+ * are applied to the attributes and relationships while they are written.
+ * Otherwise, attributes are written by the {@link AttributesWriter} of the
+ * {@link AttributesWriterRegistry} attached to the writer, if any. Links
+ * are generated by the {@link LinkTemplates} attached to the writer, if any.
+ *
+ */
+final class ResourceObjectSerializer extends JsonSerializer<ResourceObject<?>> {
+
+  @Override
+  public void serialize(ResourceObject<?> value, JsonGenerator gen,
+      SerializerProvider provider) throws IOException {
+    SparseFieldsets sparseFieldsets =
+        (SparseFieldsets) provider.getAttribute(SparseFieldsets.class);
+    Set<String> fields = null;
+    if (sparseFieldsets != null) {
+      fields = sparseFieldsets.getFields(value.getType());
+    }
+
+    LinkTemplates linkTemplates =
+        (LinkTemplates) provider.getAttribute(LinkTemplates.class);
+    LinkTemplates.TypeLinks typeLinks = null;
+    if (linkTemplates != null && value.getType() != null) {
+      typeLinks = linkTemplates.forType(value.getType());
+    }
+
+    gen.writeStartObject();
+    gen.writeFieldName("type");
+    if (value.getType() == null) {
+      gen.writeNull();
+    } else {
+      gen.writeString(value.getType());
+    }
+    if (value.getId() != null) gen.writeStringField("id", value.getId());
+
+    Object attributes = value.getAttributes();
+    if (attributes != null) {
+      gen.writeFieldName("attributes");
+      if (fields == null) {
+        AttributesWriterRegistry attributesWriters =
+            (AttributesWriterRegistry) provider
+                .getAttribute(AttributesWriterRegistry.class);
+        AttributesWriter<Object> writer = attributesWriters == null ? null
+            : attributesWriters.find(value.getType(), attributes.getClass());
+        if (writer == null) {
+          provider.defaultSerializeValue(attributes, gen);
+        } else {
+          writer.write(attributes, gen);
+        }
+      } else {
+        writeAttributes(attributes, fields, gen, provider);
+      }
+    }
+
+    Map<String, RelationshipObject<?>> relationships =
+        value.relationshipsOrEmpty();
+    if (!relationships.isEmpty()) {
+      if (fields == null
+          && (typeLinks == null || !typeLinks.hasRelationshipLinks())) {
+        provider.defaultSerializeField("relationships", relationships, gen);
+      } else {
+        writeRelationships(value.getId(), relationships, fields, typeLinks,
+            gen, provider);
+      }
+    }
+
+    if (typeLinks != null) {
+      typeLinks.writeResourceLinks(value.getId(), value.linksOrEmpty(), gen,
+          provider);
+    } else if (!value.linksOrEmpty().isEmpty()) {
+      provider.defaultSerializeField("links", value.linksOrEmpty(), gen);
+    }
+    if (!value.includedOrEmpty().isEmpty()) {
+      provider.defaultSerializeField("included", value.includedOrEmpty(), gen);
+    }
+    if (value.getMeta() != null) {
+      provider.defaultSerializeField("meta", value.getMeta(), gen);
+    }
+    gen.writeEndObject();
+  }
+
+  private static void writeAttributes(Object attributes, Set<String> fields,
+      JsonGenerator gen, SerializerProvider provider) throws IOException {
+    if (attributes instanceof Map) {
+      gen.writeStartObject();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) attributes).entrySet()) {
+        String name = String.valueOf(entry.getKey());
+        if (fields.contains(name)) {
+          provider.defaultSerializeField(name, entry.getValue(), gen);
+        }
+      }
+      gen.writeEndObject();
+    } else if (attributes instanceof JsonNode
+        && ((JsonNode) attributes).isObject()) {
+      gen.writeStartObject();
+      Iterator<Map.Entry<String, JsonNode>> iter =
+          ((JsonNode) attributes).fields();
+      while (iter.hasNext()) {
+        Map.Entry<String, JsonNode> entry = iter.next();
+        if (fields.contains(entry.getKey())) {
+          provider.defaultSerializeField(entry.getKey(), entry.getValue(), gen);
+        }
+      }
+      gen.writeEndObject();
+    } else {
+      JsonSerializer<Object> serializer =
+          provider.findValueSerializer(attributes.getClass(), null);
+      List<PropertyWriter> properties = FieldsetProperties.find(provider,
+          attributes.getClass(), serializer, fields);
+      if (properties == null) {
+        serializer.serialize(attributes, gen, provider);
+      } else {
+        gen.writeStartObject();
+        for (PropertyWriter property : properties) {
+          try {
+            property.serializeAsField(attributes, gen, provider);
+          } catch (Exception e) {
+            throw wrap(e, attributes, property.getName());
+          }
+        }
+        gen.writeEndObject();
+      }
+    }
+  }
+
+  private static IOException wrap(Throwable e, Object attributes,
+      String property) {
+    // Unwraps reflection failures and adds the property path, as bean
+    // serializers do
+    while (e instanceof InvocationTargetException && e.getCause() != null) {
+      e = e.getCause();
+    }
+    if (e instanceof Error) throw (Error) e;
+    if (e instanceof IOException && !(e instanceof JsonMappingException)) {
+      return (IOException) e;
+    }
+    return JsonMappingException.wrapWithPath(e, attributes, property);
+  }
+
+  private static void writeRelationships(String id,
+      Map<String, RelationshipObject<?>> relationships, Set<String> fields,
+      LinkTemplates.TypeLinks typeLinks, JsonGenerator gen,
+      SerializerProvider provider) throws IOException {
+    if (typeLinks != null && !typeLinks.hasRelationshipLinks()) {
+      typeLinks = null;
+    }
+    boolean started = false;
+    for (Map.Entry<String, RelationshipObject<?>> entry : relationships
+        .entrySet()) {
+      if (fields != null && !fields.contains(entry.getKey())) continue;
+      if (!started) {
+        gen.writeFieldName("relationships");
+        gen.writeStartObject();
+        started = true;
+      }
+      if (typeLinks == null || entry.getValue() == null) {
+        provider.defaultSerializeField(entry.getKey(), entry.getValue(), gen);
+      } else {
+        gen.writeFieldName(entry.getKey());
+        RelationshipObjectSerializer.serialize(entry.getValue(), gen,
+            provider, typeLinks, id, entry.getKey());
+      }
+    }
+    if (started) gen.writeEndObject();
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 
+ * {@link ResourceTypes} canonicalizes the type strings of resources, so
+ * millions of resources of the same type share one type string instead of
+ * holding a copy each. It is applied whenever the type of a
+ * {@link ResourceObject} or a {@link ResourceIdentifierObject} is set, which
+ * covers both the deserialization and the factory methods of {@link JsonApi}.
+ * <br>
+ * <br>
+ * The table is bounded, so a flood of unknown types can't grow it without
+ * limit. Once it is full, new types are kept as they are. Known types can be
+ * registered at startup regardless of the bound.<br>
+ * <br>
+ * Relationship names and link names don't need this table, because Jackson
+ * canonicalizes JSON member names in its symbol table when they are read.
+ *
+ */
+public final class ResourceTypes {
+
+  private ResourceTypes() {}
+
+  /**
+   * The default max number of types which are canonicalized on the fly.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1024;
+
+  private static final ConcurrentMap<String, String> types =
+      new ConcurrentHashMap<String, String>();
+
+  private static final AtomicInteger size = new AtomicInteger();
+
+  private static volatile int maxSize = DEFAULT_MAX_SIZE;
+
+  /**
+   * Registers known types of resources, ex: at startup.
+   * 
+   * @param knownTypes
+   *          types of resources
+   */
+  public static void register(String... knownTypes) {
+    for (String type : knownTypes) {
+      if (types.putIfAbsent(type, type) == null) size.incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the canonical instance of given type of resource.
+   * 
+   * @param type
+   *          the type of resource
+   * @return the canonical type, or the given one if the table is full
+   */
+  public static String canonicalize(String type) {
+    if (type == null) return null;
+
+    String canonical = types.get(type);
+    if (canonical != null) return canonical;
+    if (size.get() >= maxSize) return type;
+
+    canonical = types.putIfAbsent(type, type);
+    if (canonical != null) return canonical;
+    size.incrementAndGet();
+    return type;
+  }
+
+  /**
+   * Sets the max number of types which are canonicalized on the fly.
+   * Registered types count towards it but are never rejected.
+   * 
+   * @param max
+   *          the max number of types
+   */
+  public static void setMaxSize(int max) {
+    checkArgument(max >= 0, "Max size must not be negative");
+    maxSize = max;
+  }
+
+  /**
+   * Returns the number of canonical types.
+   * 
+   * @return the number of canonical types
+   */
+  public static int size() {
+    return size.get();
+  }
+
+}
@@ -21,15 +21,28 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newLinkedHashMap;
-
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import javax.validation.Valid;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
+import com.google.common.base.Charsets;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -44,11 +57,12 @@ import com.google.common.base.Objects;
  */
 @JsonInclude(NON_DEFAULT)
 public class ResourcesDocument<T> implements Document<List<ResourceObject<T>>>,
-    Jsonable<ResourcesDocument<T>> {
+    StreamingJsonable<ResourcesDocument<T>> {
 
+  @JsonProperty
   @JsonInclude(ALWAYS)
   @Valid
-  private List<ResourceObject<T>> data = newArrayList();
+  private List<ResourceObject<T>> data = emptyList();
 
   @Valid
   private Object meta;
@@ -56,14 +70,25 @@ public class ResourcesDocument<T> implements Document<List<ResourceObject<T>>>,
   @Valid
   private JsonApiObject jsonapi;
 
+  @JsonProperty
   @Valid
-  private Map<String, LinkObject> links = newLinkedHashMap();
+  private Map<String, LinkObject> links = emptyMap();
 
+  @JsonProperty
   @Valid
-  private List<ResourceObject<?>> included = newArrayList();
+  private List<ResourceObject<?>> included = emptyList();
 
+  /**
+   * Returns the document's "primary data".
+   * The list is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return the document's "primary data"
+   */
   @Override
+  @JsonIgnore
   public List<ResourceObject<T>> getData() {
+    if (data == Collections.EMPTY_LIST) data = newArrayList();
     return data;
   }
 
@@ -136,8 +161,17 @@ public class ResourcesDocument<T> implements Document<List<ResourceObject<T>>>,
     return this;
   }
 
+  /**
+   * Returns {@link LinkObject}s related to the primary data.
+   * The map is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return {@link LinkObject}s
+   */
   @Override
+  @JsonIgnore
   public Map<String, LinkObject> getLinks() {
+    if (links == Collections.EMPTY_MAP) links = newLinkedHashMap();
     return links;
   }
 
@@ -158,8 +192,20 @@ public class ResourcesDocument<T> implements Document<List<ResourceObject<T>>>,
     return this;
   }
 
+  /**
+   * Returns a list of {@link ResourceObject}s that are related to the primary
+   * data and/or each other.
+   * The list is allocated on the first call, which writes this document, so
+   * don't call it while other threads read or serialize the same document.
+   * 
+   * @return a list of {@link ResourceObject}s
+   */
   @Override
+  @JsonIgnore
   public List<ResourceObject<?>> getIncluded() {
+    if (included == Collections.EMPTY_LIST) {
+      included = new IncludedResources();
+    }
     return included;
   }
 
@@ -173,16 +219,101 @@ public class ResourcesDocument<T> implements Document<List<ResourceObject<T>>>,
     return this;
   }
 
+  /**
+   * Adds the first, prev, next and last links of a {@link Page} to the links
+   * of this document.
+   * 
+   * @param page
+   *          a {@link Page}
+   * @param baseUrl
+   *          the URL of the collection
+   * @return this {@link ResourcesDocument}
+   */
+  public ResourcesDocument<T> withPageLinks(Page<?> page, String baseUrl) {
+    getLinks().putAll(page.links(baseUrl));
+    return this;
+  }
+
+  /**
+   * Includes a {@link ResourceObject} which is related to the primary data.
+   * A resource which is already included is merged into the existing one, and
+   * a resource of the primary data is never included. A list given to
+   * {@link #setIncluded} is kept as is until the first call, which copies it
+   * into an {@link IncludedResources} and merges its duplicates.
+   * 
+   * @param resource
+   *          a {@link ResourceObject}
+   * @return this {@link ResourcesDocument}
+   */
+  public ResourcesDocument<T> include(ResourceObject<?> resource) {
+    IncludedResources includedResources = includedResources();
+    if (data != null) includedResources.excludePrimaryData(data);
+    includedResources.include(resource);
+    return this;
+  }
+
+  private IncludedResources includedResources() {
+    if (!(included instanceof IncludedResources)) {
+      included = included == null ? new IncludedResources()
+          : new IncludedResources(included);
+    }
+    return (IncludedResources) included;
+  }
+
+  boolean hasData() {
+    return data != null;
+  }
+
+  List<ResourceObject<T>> dataOrEmpty() {
+    return data == null ? Collections.<ResourceObject<T>> emptyList() : data;
+  }
+
+  Map<String, LinkObject> linksOrEmpty() {
+    return links == null ? Collections.<String, LinkObject> emptyMap() : links;
+  }
+
+  List<ResourceObject<?>> includedOrEmpty() {
+    return included == null ? Collections.<ResourceObject<?>> emptyList()
+        : included;
+  }
+
+  /**
+   * Returns a copy of this document without primary data. Fields are read
+   * directly, so this document is never written.
+   * 
+   * @return a {@link ResourcesDocument} without primary data
+   */
+  ResourcesDocument<T> shell() {
+    ResourcesDocument<T> shell = new ResourcesDocument<T>();
+    shell.meta = meta;
+    shell.jsonapi = jsonapi;
+    shell.links = links;
+    shell.included = included;
+    return shell;
+  }
+
+  /**
+   * Returns a frozen snapshot of this document. Every resource of the primary
+   * data and of the included resources is frozen, and resources which are
+   * frozen already are shared with this document. See
+   * {@link ResourceDocument#freeze} for details.
+   * 
+   * @return a frozen {@link ResourcesDocument}
+   */
+  public ResourcesDocument<T> freeze() {
+    return new Frozen<T>(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
     if (!(other instanceof ResourcesDocument)) return false;
     ResourcesDocument<?> castOther = (ResourcesDocument<?>) other;
-    return Objects.equal(data, castOther.getData())
-        && Objects.equal(meta, castOther.getMeta())
-        && Objects.equal(jsonapi, castOther.getJsonapi())
-        && Objects.equal(links, castOther.getLinks())
-        && Objects.equal(included, castOther.getIncluded());
+    return Objects.equal(data, castOther.data)
+        && Objects.equal(meta, castOther.meta)
+        && Objects.equal(jsonapi, castOther.jsonapi)
+        && Objects.equal(links, castOther.links)
+        && Objects.equal(included, castOther.included);
   }
 
   @Override
@@ -201,11 +332,154 @@ public class ResourcesDocument<T> implements Document<List<ResourceObject<T>>>,
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
-}
\ No newline at end of file
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * Writes this document into an {@link OutputStream} while the primary data
+   * is serialized in chunks concurrently on given {@link Executor} and the
+   * calling thread. The output is identical to {@link #writeTo(OutputStream)}.
+   * The stream is flushed but not closed.
+   * 
+   * @param out
+   *          an {@link OutputStream}
+   * @param executor
+   *          a {@link Executor}, or null to use the shared worker pool
+   * @throws IOException
+   *           if the JSON can't be written
+   */
+  public void writeTo(OutputStream out, Executor executor) throws IOException {
+    ParallelDocumentWriter.write(this, out, executor);
+  }
+
+  /**
+   * Returns a JSON string of this document while the primary data is
+   * serialized in chunks concurrently on given {@link Executor} and the
+   * calling thread. The output is identical to {@link #toJson()}.
+   * 
+   * @param executor
+   *          a {@link Executor}, or null to use the shared worker pool
+   * @return a JSON string
+   */
+  public String toJson(Executor executor) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      ParallelDocumentWriter.write(this, out, executor);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return new String(out.toByteArray(), Charsets.UTF_8);
+  }
+
+  static boolean isFrozen(ResourcesDocument<?> document) {
+    return document instanceof Frozen;
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link ResourcesDocument} which can't be modified.
+   *
+   */
+  private static final class Frozen<T> extends ResourcesDocument<T> {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(ResourcesDocument<T> source) {
+      ResourcesDocument<T> self = this;
+      self.data = FrozenCollections.data(source.data);
+      self.meta = source.meta;
+      self.jsonapi = source.jsonapi == null ? null : source.jsonapi.freeze();
+      self.links = FrozenCollections.links(source.links);
+      self.included = FrozenCollections.included(source.included);
+    }
+
+    @Override
+    public ResourcesDocument<T> freeze() {
+      return this;
+    }
+
+    @Override
+    public void setData(List<ResourceObject<T>> data) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setMeta(Object meta) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setJsonapi(JsonApiObject jsonapi) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setLinks(Map<String, LinkObject> links) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setIncluded(List<ResourceObject<?>> included) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public ResourcesDocument<T> include(ResourceObject<?> resource) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
+}
@@ -0,0 +1,441 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * 
+ * {@link ResourcesDocumentReader} reads a {@link ResourcesDocument}
+ * incrementally. {@link ResourceObject}s of the primary data are pulled one at
+ * a time from the underlying {@link InputStream}, so the memory usage doesn't
+ * grow with the size of primary data.<br>
+ * <br>
+ * Other top-level members (meta, jsonapi, links and included) are available
+ * as soon as they have been seen by the reader. They are all available once
+ * {@link #hasNext} returns false.<br>
+ * <br>
+ * In the validating mode, the structural rules of JSON API are checked on
+ * each resource of the primary data and of the included resources, and on
+ * each error object, as soon as it has been read, so a malformed document
+ * fails with an {@link InvalidDocumentException} before the rest of it is
+ * parsed. Checking that each (type, id) appears only once remembers every
+ * pair seen, which takes memory proportional to the number of resources. It
+ * can be turned off by {@link #withUniquenessCheck}, then the primary data
+ * is validated in constant memory. Included resources and error objects are
+ * members of the document, so they are always kept.
+ *
+ * @param <T>
+ *          the type of attributes
+ */
+public final class ResourcesDocumentReader<T>
+    implements Iterator<ResourceObject<T>>, Closeable {
+
+  private static final TypeReference<Map<String, LinkObject>> LINKS_TYPE =
+      new TypeReference<Map<String, LinkObject>>() {};
+
+  private final ObjectMapper mapper;
+
+  private final ObjectReader resourceReader;
+
+  private final ObjectReader includedReader;
+
+  private final ObjectReader errorReader;
+
+  private final JsonParser parser;
+
+  private boolean inData = false;
+
+  private boolean finished = false;
+
+  private boolean validating = false;
+
+  private boolean dataSeen = false;
+
+  private boolean errorsSeen = false;
+
+  private int dataIndex = 0;
+
+  private Set<ResourceKey> keys = newHashSet();
+
+  private final List<ErrorObject> violations = newArrayList();
+
+  private ResourceObject<T> nextResource;
+
+  private Object meta;
+
+  private JsonApiObject jsonapi;
+
+  private Map<String, LinkObject> links;
+
+  private List<ResourceObject<?>> included;
+
+  private List<ErrorObject> errors;
+
+  /**
+   * Creates a {@link ResourcesDocumentReader} with the current
+   * {@link ObjectMapperSnapshot} of {@link ObjectMapperFactory}.
+   * 
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @param attributeClass
+   *          the class of attributes
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public ResourcesDocumentReader(InputStream in, Class<T> attributeClass)
+      throws IOException {
+    this(in, attributeClass, ObjectMapperFactory.getSnapshot());
+  }
+
+  /**
+   * Creates a {@link ResourcesDocumentReader} with given
+   * {@link ObjectMapperSnapshot}.
+   * 
+   * @param in
+   *          an {@link InputStream} of JSON
+   * @param attributeClass
+   *          the class of attributes
+   * @param snapshot
+   *          a {@link ObjectMapperSnapshot}
+   * @throws IOException
+   *           if the JSON can't be read
+   */
+  public ResourcesDocumentReader(InputStream in, Class<T> attributeClass,
+      ObjectMapperSnapshot snapshot) throws IOException {
+    mapper = snapshot.getObjectMapper();
+    resourceReader = snapshot.getObjectReader(
+        snapshot.constructType(ResourceObject.class, attributeClass));
+    includedReader = snapshot.getObjectReader(
+        snapshot.constructType(ResourceObject.class, Object.class));
+    errorReader = snapshot.getObjectReader(ErrorObject.class);
+    parser = mapper.getFactory().createParser(in);
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException("Document must be a JSON object",
+          parser.getCurrentLocation());
+    }
+  }
+
+  /**
+   * Turns the validating mode on or off. It should be set before any
+   * {@link ResourceObject} is read.
+   * 
+   * @param validating
+   *          true if the structural rules of JSON API are checked while
+   *          reading
+   * @return this {@link ResourcesDocumentReader}
+   */
+  public ResourcesDocumentReader<T> withValidation(boolean validating) {
+    this.validating = validating;
+    return this;
+  }
+
+  /**
+   * Returns true if the structural rules of JSON API are checked while
+   * reading.
+   * 
+   * @return true if in the validating mode, false otherwise
+   */
+  public boolean isValidating() {
+    return validating;
+  }
+
+  /**
+   * Turns the check that each (type, id) appears only once on or off in the
+   * validating mode. It is on by default and takes memory proportional to the
+   * number of resources. It should be set before any {@link ResourceObject}
+   * is read.
+   * 
+   * @param checking
+   *          true if duplicate resources are rejected
+   * @return this {@link ResourcesDocumentReader}
+   */
+  public ResourcesDocumentReader<T> withUniquenessCheck(boolean checking) {
+    if (!checking) {
+      keys = null;
+    } else if (keys == null) {
+      keys = newHashSet();
+    }
+    return this;
+  }
+
+  /**
+   * Returns true if duplicate resources are rejected in the validating mode.
+   * 
+   * @return true if each (type, id) is checked to appear only once
+   */
+  public boolean isCheckingUniqueness() {
+    return keys != null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (nextResource != null) return true;
+    if (finished) return false;
+
+    try {
+      advance();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return nextResource != null;
+  }
+
+  @Override
+  public ResourceObject<T> next() {
+    if (!hasNext()) throw new NoSuchElementException();
+
+    ResourceObject<T> resource = nextResource;
+    nextResource = null;
+    return resource;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  private void advance() throws IOException {
+    while (!finished) {
+      if (inData) {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+          inData = false;
+        } else {
+          // Pointers are only built when validating, reading stays allocation
+          // free apart from the resources themselves
+          int index = dataIndex++;
+          if (validating && token != JsonToken.START_OBJECT) {
+            throw invalid("/data/" + index, "A resource object is expected");
+          }
+          ResourceObject<T> resource = resourceReader.readValue(parser);
+          if (validating) validate(resource, "/data/" + index, false);
+          nextResource = resource;
+          return;
+        }
+      } else {
+        readMember();
+      }
+    }
+  }
+
+  private void readMember() throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.END_OBJECT || token == null) {
+      finished = true;
+      if (validating && !dataSeen && included != null && !included.isEmpty()) {
+        throw invalid("/included",
+            "The member included MUST NOT be present without data");
+      }
+      return;
+    }
+
+    String name = parser.getCurrentName();
+    token = parser.nextToken();
+    if ("data".equals(name)) {
+      dataSeen = true;
+      if (validating && errorsSeen) throw coexistence();
+      if (token == JsonToken.START_ARRAY) {
+        inData = true;
+      } else if (token != JsonToken.VALUE_NULL) {
+        throw new JsonParseException("Primary data must be a JSON array",
+            parser.getCurrentLocation());
+      }
+    } else if ("meta".equals(name)) {
+      meta = mapper.readValue(parser, Object.class);
+    } else if ("jsonapi".equals(name)) {
+      jsonapi = mapper.readValue(parser, JsonApiObject.class);
+    } else if ("links".equals(name)) {
+      links = mapper.readValue(parser, LINKS_TYPE);
+    } else if ("included".equals(name)) {
+      readIncluded(token);
+    } else if ("errors".equals(name) && token != JsonToken.VALUE_NULL) {
+      errorsSeen = true;
+      if (validating && dataSeen) throw coexistence();
+      readErrors(token);
+    } else {
+      parser.skipChildren();
+    }
+  }
+
+  private void readIncluded(JsonToken token) throws IOException {
+    if (token == JsonToken.VALUE_NULL) {
+      included = null;
+      return;
+    }
+    expectArray(token, "/included", "included");
+
+    included = newArrayList();
+    for (int i = 0; (token = nextElement()) != JsonToken.END_ARRAY; i++) {
+      if (validating && token != JsonToken.START_OBJECT) {
+        throw invalid("/included/" + i, "A resource object is expected");
+      }
+      ResourceObject<?> resource = includedReader.readValue(parser);
+      if (validating) validate(resource, "/included/" + i, true);
+      included.add(resource);
+    }
+  }
+
+  private void readErrors(JsonToken token) throws IOException {
+    expectArray(token, "/errors", "errors");
+
+    errors = newArrayList();
+    for (int i = 0; (token = nextElement()) != JsonToken.END_ARRAY; i++) {
+      if (validating && token != JsonToken.START_OBJECT) {
+        throw invalid("/errors/" + i, "An error object is expected");
+      }
+      ErrorObject error = errorReader.readValue(parser);
+      if (validating) {
+        StructuralValidator.validateError(error, "/errors/" + i, violations);
+        checkViolations();
+      }
+      errors.add(error);
+    }
+  }
+
+  private void expectArray(JsonToken token, String pointer, String member)
+      throws IOException {
+    if (token == JsonToken.START_ARRAY) return;
+    if (validating) {
+      throw invalid(pointer, "The member " + member + " MUST be an array");
+    }
+    throw new JsonParseException("Member " + member + " must be a JSON array",
+        parser.getCurrentLocation());
+  }
+
+  private JsonToken nextElement() throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == null) {
+      throw new JsonParseException("Unexpected end of input",
+          parser.getCurrentLocation());
+    }
+    return token;
+  }
+
+  private void validate(Object resource, String pointer, boolean requireId) {
+    StructuralValidator.validateResource(resource, pointer, requireId, keys,
+        violations);
+    checkViolations();
+  }
+
+  private void checkViolations() {
+    if (!violations.isEmpty()) {
+      throw new InvalidDocumentException(violations.get(0));
+    }
+  }
+
+  private InvalidDocumentException coexistence() {
+    return invalid("",
+        "The members data and errors MUST NOT coexist in the same document");
+  }
+
+  private static InvalidDocumentException invalid(String pointer,
+      String detail) {
+    return new InvalidDocumentException(
+        StructuralValidator.error(pointer, detail));
+  }
+
+  /**
+   * Reads the rest of the document into a {@link ResourcesDocument}.
+   * 
+   * @return a {@link ResourcesDocument}
+   */
+  public ResourcesDocument<T> readDocument() {
+    ResourcesDocument<T> document = new ResourcesDocument<T>();
+    while (hasNext()) {
+      document.getData().add(next());
+    }
+    document.setMeta(meta);
+    document.setJsonapi(jsonapi);
+    if (links != null) document.setLinks(links);
+    if (included != null) document.setIncluded(included);
+    return document;
+  }
+
+  /**
+   * Returns the meta object if it has been read, null otherwise.
+   * 
+   * @return a meta object
+   */
+  public Object getMeta() {
+    return meta;
+  }
+
+  /**
+   * Returns the {@link JsonApiObject} if it has been read, null otherwise.
+   * 
+   * @return a {@link JsonApiObject}
+   */
+  public JsonApiObject getJsonapi() {
+    return jsonapi;
+  }
+
+  /**
+   * Returns the {@link LinkObject}s if they have been read, null otherwise.
+   * 
+   * @return {@link LinkObject}s
+   */
+  public Map<String, LinkObject> getLinks() {
+    return links;
+  }
+
+  /**
+   * Returns the error objects if they have been read, null otherwise.
+   * 
+   * @return a list of {@link ErrorObject}s
+   */
+  public List<ErrorObject> getErrors() {
+    return errors;
+  }
+
+  /**
+   * Returns the included {@link ResourceObject}s if they have been read, null
+   * otherwise.
+   * 
+   * @return a list of {@link ResourceObject}s
+   */
+  public List<ResourceObject<?>> getIncluded() {
+    return included;
+  }
+
+  /**
+   * Closes the underlying parser.
+   */
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+
+}
@@ -0,0 +1,283 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.wnameless.json.StreamingJsonable;
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+
+/**
+ * 
+ * {@link ResourcesDocumentWriter} writes a {@link ResourcesDocument} whose
+ * primary data is pulled from an {@link Iterator}. Each element is wrapped
+ * into a {@link ResourceObject} and written right away, so only one resource
+ * is held in memory at a time no matter how many elements the
+ * {@link Iterator} yields. The meta, jsonapi, links and included members are
+ * appended after the primary data.<br>
+ * <br>
+ * Since the {@link Iterator} can be consumed only once, a
+ * {@link ResourcesDocumentWriter} can be written only once as well. Writing
+ * it again throws an {@link IllegalStateException} instead of silently
+ * producing a document with empty primary data.
+ *
+ * @param <T>
+ *          the type of attributes
+ */
+public final class ResourcesDocumentWriter<T>
+    implements StreamingJsonable<ResourcesDocumentWriter<T>> {
+
+  private final Iterator<T> attrIterator;
+
+  private final String type;
+
+  private final Function<T, String> idProvider;
+
+  private Object meta;
+
+  private JsonApiObject jsonapi;
+
+  private Map<String, LinkObject> links = emptyMap();
+
+  private List<ResourceObject<?>> included = emptyList();
+
+  private boolean consumed;
+
+  /**
+   * Creates a {@link ResourcesDocumentWriter}.
+   * 
+   * @param attrIterator
+   *          an {@link Iterator} of data
+   * @param type
+   *          the type of data
+   * @param idProvider
+   *          function to compute the id of data, can be null
+   */
+  public ResourcesDocumentWriter(Iterator<T> attrIterator, String type,
+      Function<T, String> idProvider) {
+    this.attrIterator = checkNotNull(attrIterator);
+    this.type = type;
+    this.idProvider = idProvider;
+  }
+
+  /**
+   * Sets a meta object.
+   * 
+   * @param meta
+   *          a meta object
+   * @return this {@link ResourcesDocumentWriter}
+   */
+  public ResourcesDocumentWriter<T> withMeta(Object meta) {
+    this.meta = meta;
+    return this;
+  }
+
+  /**
+   * Sets a {@link JsonApiObject} describing the server's implementation.
+   * 
+   * @param jsonapi
+   *          a {@link JsonApiObject}
+   * @return this {@link ResourcesDocumentWriter}
+   */
+  public ResourcesDocumentWriter<T> withJsonapi(JsonApiObject jsonapi) {
+    this.jsonapi = jsonapi;
+    return this;
+  }
+
+  /**
+   * Sets {@link LinkObject}s related to the primary data.
+   * 
+   * @param links
+   *          {@link LinkObject}s
+   * @return this {@link ResourcesDocumentWriter}
+   */
+  public ResourcesDocumentWriter<T> withLinks(Map<String, LinkObject> links) {
+    this.links = links;
+    return this;
+  }
+
+  /**
+   * Sets a list of {@link ResourceObject}s that are related to the primary
+   * data.
+   * 
+   * @param included
+   *          a list of {@link ResourceObject}s
+   * @return this {@link ResourcesDocumentWriter}
+   */
+  public ResourcesDocumentWriter<T> withIncluded(
+      List<ResourceObject<?>> included) {
+    this.included = included;
+    return this;
+  }
+
+  /**
+   * Returns the {@link LinkObject}s which will be written after primary data.
+   * 
+   * @return {@link LinkObject}s
+   */
+  public Map<String, LinkObject> getLinks() {
+    if (links == Collections.EMPTY_MAP) links = newLinkedHashMap();
+    return links;
+  }
+
+  /**
+   * Returns the included {@link ResourceObject}s which will be written after
+   * primary data.
+   * 
+   * @return a list of {@link ResourceObject}s
+   */
+  public List<ResourceObject<?>> getIncluded() {
+    if (included == Collections.EMPTY_LIST) included = newArrayList();
+    return included;
+  }
+
+  private StreamingView<T> view() {
+    checkState(!consumed, "ResourcesDocumentWriter can be written only once");
+    consumed = true;
+    final ResourceObject<T> resource = new ResourceObject<T>().withType(type);
+    Iterator<ResourceObject<T>> data = Iterators.transform(attrIterator,
+        new Function<T, ResourceObject<T>>() {
+
+          @Override
+          public ResourceObject<T> apply(T attributes) {
+            resource.setAttributes(attributes);
+            if (idProvider != null) {
+              resource.setId(idProvider.apply(attributes));
+            }
+            return resource;
+          }
+
+        });
+    return new StreamingView<T>(data, meta, jsonapi, links, included);
+  }
+
+  @Override
+  public String toJson() {
+    String json = null;
+    try {
+      json = ObjectMapperFactory.getObjectWriter(StreamingView.class)
+          .writeValueAsString(view());
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return json;
+  }
+
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(
+        ObjectMapperFactory.getObjectWriter(StreamingView.class), view());
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(StreamingView.class).writeValue(out,
+        view());
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(StreamingView.class).writeValue(writer,
+        view());
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(StreamingView.class)
+        .writeValue(generator, view());
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(StreamingView.class),
+        view(), buffer);
+  }
+
+  @JsonPropertyOrder({ "data", "meta", "jsonapi", "links", "included" })
+  static final class StreamingView<T> {
+
+    @JsonInclude(ALWAYS)
+    private final Iterator<ResourceObject<T>> data;
+
+    @JsonInclude(NON_NULL)
+    private final Object meta;
+
+    @JsonInclude(NON_NULL)
+    private final JsonApiObject jsonapi;
+
+    @JsonInclude(NON_EMPTY)
+    private final Map<String, LinkObject> links;
+
+    @JsonInclude(NON_EMPTY)
+    private final List<ResourceObject<?>> included;
+
+    StreamingView(Iterator<ResourceObject<T>> data, Object meta,
+        JsonApiObject jsonapi, Map<String, LinkObject> links,
+        List<ResourceObject<?>> included) {
+      this.data = data;
+      this.meta = meta;
+      this.jsonapi = jsonapi;
+      this.links = links;
+      this.included = included;
+    }
+
+    public Iterator<ResourceObject<T>> getData() {
+      return data;
+    }
+
+    public Object getMeta() {
+      return meta;
+    }
+
+    public JsonApiObject getJsonapi() {
+      return jsonapi;
+    }
+
+    public Map<String, LinkObject> getLinks() {
+      return links;
+    }
+
+    public List<ResourceObject<?>> getIncluded() {
+      return included;
+    }
+
+  }
+
+}
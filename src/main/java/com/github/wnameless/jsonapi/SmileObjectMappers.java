@@ -0,0 +1,57 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * 
+ * {@link SmileObjectMappers} derives Smile {@link ObjectMapper}s. It is the
+ * only class which refers to jackson-dataformat-smile, so that optional
+ * dependency is loaded only when the Smile format is actually used.
+ *
+ */
+final class SmileObjectMappers {
+
+  private SmileObjectMappers() {}
+
+  /**
+   * Creates a Smile {@link ObjectMapper} which shares the serialization and
+   * deserialization configuration, the serializer factory and the
+   * deserializer factory of given JSON {@link ObjectMapper}. Serializers and
+   * deserializers of registered modules live in those factories, so both
+   * directions behave as the JSON {@link ObjectMapper} does.
+   * 
+   * @param mapper
+   *          a JSON {@link ObjectMapper}
+   * @return a Smile {@link ObjectMapper}
+   */
+  static ObjectMapper derive(ObjectMapper mapper) {
+    ObjectMapper smileMapper = new ObjectMapper(new SmileFactory(),
+        (DefaultSerializerProvider) mapper.getSerializerProvider(),
+        (DefaultDeserializationContext) mapper.getDeserializationContext());
+    smileMapper.setConfig(mapper.getSerializationConfig());
+    smileMapper.setConfig(mapper.getDeserializationConfig());
+    smileMapper.setSerializerFactory(mapper.getSerializerFactory());
+    return smileMapper;
+  }
+
+}
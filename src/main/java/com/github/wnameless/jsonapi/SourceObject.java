@@ -19,9 +19,15 @@ package com.github.wnameless.jsonapi;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.github.wnameless.json.Jsonable;
+import com.github.wnameless.json.StreamingJsonable;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 
@@ -35,7 +41,7 @@ import com.google.common.base.Objects;
  *
  */
 @JsonInclude(NON_DEFAULT)
-public class SourceObject implements Jsonable<SourceObject> {
+public class SourceObject implements StreamingJsonable<SourceObject> {
 
   private String pointer;
 
@@ -103,6 +109,15 @@ public class SourceObject implements Jsonable<SourceObject> {
     return this;
   }
 
+  /**
+   * Returns an immutable copy of this {@link SourceObject}.
+   * 
+   * @return a frozen {@link SourceObject}
+   */
+  public SourceObject freeze() {
+    return new Frozen(this);
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (this == other) return true;
@@ -127,11 +142,91 @@ public class SourceObject implements Jsonable<SourceObject> {
   public String toJson() {
     String json = null;
     try {
-      json = ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
+      json = ObjectMapperFactory.getObjectWriter(getClass())
+          .writeValueAsString(this);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
     return json;
   }
 
+  @Override
+  public byte[] toJsonBytes() {
+    return JsonBytes.toBytes(ObjectMapperFactory.getObjectWriter(getClass()),
+        this);
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(out, this);
+  }
+
+  @Override
+  public void writeTo(Writer writer) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(writer, this);
+  }
+
+  @Override
+  public void writeTo(JsonGenerator generator) throws IOException {
+    ObjectMapperFactory.getObjectWriter(getClass()).writeValue(generator,
+        this);
+  }
+
+  @Override
+  public void writeTo(ByteBuffer buffer) throws IOException {
+    JsonBytes.writeTo(ObjectMapperFactory.getObjectWriter(getClass()), this,
+        buffer);
+  }
+
+  /**
+   * 
+   * {@link Frozen} is a {@link SourceObject} which can't be modified.
+   *
+   */
+  private static final class Frozen extends SourceObject {
+
+    // racy but idempotent, see FrozenCollections
+    private int hash;
+
+    private Frozen(SourceObject source) {
+      SourceObject self = this;
+      self.pointer = source.pointer;
+      self.parameter = source.parameter;
+    }
+
+    @Override
+    public SourceObject freeze() {
+      return this;
+    }
+
+    @Override
+    public void setPointer(String pointer) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public void setParameter(String parameter) {
+      throw FrozenCollections.immutable(this);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (other instanceof Frozen && other.hashCode() != hashCode()) {
+        return false;
+      }
+      return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = hash;
+      if (h == 0) {
+        h = super.hashCode();
+        hash = h;
+      }
+      return h;
+    }
+
+  }
+
 }
@@ -0,0 +1,175 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.newHashMap;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * 
+ * {@link SparseFieldsets} holds the fields of each resource type which are
+ * requested by a client. They are applied while resources are being
+ * serialized, so neither trimmed copies of attributes are built nor unwanted
+ * fields are written. The attributes and relationships of a resource whose
+ * type has no fieldset are written in full.<br>
+ * <br>
+ * Properties of an attribute class which are selected by a fieldset are
+ * resolved once per {@link ObjectMapperSnapshot} and shared by all requests
+ * asking for the same fields of that class.
+ * 
+ * @see <a href="http://jsonapi.org/format/#fetching-sparse-fieldsets">JSON API
+ *      Specification (v1.0) Sparse Fieldsets</a>
+ *
+ */
+public final class SparseFieldsets {
+
+  private static final Splitter FIELD_SPLITTER =
+      Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private final Map<String, Set<String>> fieldsets = newHashMap();
+
+  /**
+   * Creates a {@link SparseFieldsets} from query parameters like
+   * fields[articles]=title,body. Parameters which are not fieldsets are
+   * ignored.
+   * 
+   * @param parameters
+   *          a map of query parameter names and values
+   * @return a {@link SparseFieldsets}
+   */
+  public static SparseFieldsets fromQueryParameters(
+      Map<String, String> parameters) {
+    SparseFieldsets sparseFieldsets = new SparseFieldsets();
+    for (Map.Entry<String, String> param : parameters.entrySet()) {
+      String name = param.getKey();
+      if (name.startsWith("fields[") && name.endsWith("]")) {
+        String type = name.substring(7, name.length() - 1);
+        String value = param.getValue() == null ? "" : param.getValue();
+        sparseFieldsets.withFields(type, FIELD_SPLITTER.split(value));
+      }
+    }
+    return sparseFieldsets;
+  }
+
+  /**
+   * Sets the fields of a resource type.
+   * 
+   * @param type
+   *          the type of resource
+   * @param fields
+   *          names of attributes and relationships
+   * @return this {@link SparseFieldsets}
+   */
+  public SparseFieldsets withFields(String type, String... fields) {
+    return withFields(type, Arrays.asList(fields));
+  }
+
+  /**
+   * Sets the fields of a resource type.
+   * 
+   * @param type
+   *          the type of resource
+   * @param fields
+   *          names of attributes and relationships
+   * @return this {@link SparseFieldsets}
+   */
+  public SparseFieldsets withFields(String type, Iterable<String> fields) {
+    fieldsets.put(checkNotNull(type), ImmutableSet.copyOf(fields));
+    return this;
+  }
+
+  /**
+   * Returns the fields of a resource type.
+   * 
+   * @param type
+   *          the type of resource
+   * @return names of attributes and relationships, or null if the type has no
+   *         fieldset
+   */
+  public Set<String> getFields(String type) {
+    return fieldsets.get(type);
+  }
+
+  /**
+   * Applies this {@link SparseFieldsets} to an {@link ObjectWriter}.
+   * 
+   * @param writer
+   *          an {@link ObjectWriter}
+   * @return a new {@link ObjectWriter} which applies this fieldsets
+   */
+  public ObjectWriter applyTo(ObjectWriter writer) {
+    return writer.withAttribute(SparseFieldsets.class, this);
+  }
+
+  /**
+   * Returns a JSON string of given document or object with this fieldsets
+   * applied.
+   * 
+   * @param value
+   *          a document or any JSON API object
+   * @return a JSON string
+   */
+  public String toJson(Object value) {
+    String json = null;
+    try {
+      json = applyTo(ObjectMapperFactory.getObjectWriter(value.getClass()))
+          .writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return json;
+  }
+
+  /**
+   * Writes given document or object with this fieldsets applied into an
+   * {@link OutputStream}. The stream is flushed but not closed.
+   * 
+   * @param value
+   *          a document or any JSON API object
+   * @param out
+   *          an {@link OutputStream}
+   * @throws IOException
+   *           if the JSON can't be written
+   */
+  public void writeTo(Object value, OutputStream out) throws IOException {
+    applyTo(ObjectMapperFactory.getObjectWriter(value.getClass()))
+        .writeValue(out, value);
+  }
+
+  @Override
+  public String toString() {
+    MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+    for (Map.Entry<String, Set<String>> entry : fieldsets.entrySet()) {
+      helper.add(entry.getKey(), entry.getValue());
+    }
+    return helper.toString();
+  }
+
+}
@@ -0,0 +1,248 @@
+/*
+ *
+ * Copyright 2016 Wei-Ming Wu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.github.wnameless.jsonapi;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 
+ * {@link StructuralValidator} checks the structural rules of JSON API on a
+ * document, ex: data and errors must not coexist, every resource needs a type,
+ * included resources need an id, each (type, id) appears only once and the
+ * source pointer of an error is a JSON pointer. It is
+ * written by hand and uses no reflection, so it is cheap enough to run on
+ * every inbound document.<br>
+ * <br>
+ * The id of primary data is not required, because resources created by a
+ * client may not have one yet.
+ * 
+ * @see <a href="http://jsonapi.org/format/#document-structure">JSON API
+ *      Specification (v1.0) Document Structure</a>
+ *
+ */
+public final class StructuralValidator implements DocumentValidator {
+
+  static final String TITLE = "Invalid document";
+
+  @Override
+  public List<ErrorObject> validate(Document<?> document) {
+    List<ErrorObject> errors = newArrayList();
+    Object data = dataOf(document);
+    List<ErrorObject> errorObjects = errorsOf(document);
+    if (data != null && errorObjects != null && !errorObjects.isEmpty()) {
+      errors.add(error("",
+          "The members data and errors MUST NOT coexist in the same document"));
+    }
+    if (errorObjects != null) {
+      for (int i = 0; i < errorObjects.size(); i++) {
+        validateError(errorObjects.get(i), "/errors/" + i, errors);
+      }
+    }
+
+    Set<ResourceKey> keys = newHashSet();
+    if (data instanceof List) {
+      List<?> resources = (List<?>) data;
+      for (int i = 0; i < resources.size(); i++) {
+        validateResource(resources.get(i), "/data/" + i, false, keys, errors);
+      }
+    } else if (data != null) {
+      validateResource(data, "/data", false, keys, errors);
+    }
+
+    List<ResourceObject<?>> included = includedOf(document);
+    if (included != null && !included.isEmpty()) {
+      if (data == null) {
+        errors.add(error("/included",
+            "The member included MUST NOT be present without data"));
+      }
+      for (int i = 0; i < included.size(); i++) {
+        validateResource(included.get(i), "/included/" + i, true, keys,
+            errors);
+      }
+    }
+    return errors;
+  }
+
+  // The documents of this library allocate their lists lazily in getters, so
+  // they are read through accessors which never write a shared document
+
+  private static Object dataOf(Document<?> document) {
+    if (document instanceof ResourcesDocument) {
+      ResourcesDocument<?> resources = (ResourcesDocument<?>) document;
+      return resources.hasData() ? resources.dataOrEmpty() : null;
+    }
+    return document.getData();
+  }
+
+  private static List<ErrorObject> errorsOf(Document<?> document) {
+    if (document instanceof ErrorsDocument) {
+      return ((ErrorsDocument) document).errorsOrEmpty();
+    }
+    return document.getErrors();
+  }
+
+  private static List<ResourceObject<?>> includedOf(Document<?> document) {
+    if (document instanceof ResourcesDocument) {
+      return ((ResourcesDocument<?>) document).includedOrEmpty();
+    } else if (document instanceof ResourceDocument) {
+      return ((ResourceDocument<?>) document).includedOrEmpty();
+    } else if (document instanceof ErrorsDocument) {
+      return ((ErrorsDocument) document).includedOrEmpty();
+    }
+    return document.getIncluded();
+  }
+
+  /**
+   * Validates a resource.
+   * 
+   * @param value
+   *          a {@link ResourceObject}
+   * @param pointer
+   *          the JSON pointer of the resource
+   * @param requireId
+   *          true if the resource must have an id
+   * @param keys
+   *          (type, id) pairs seen so far, null to skip the uniqueness check
+   * @param errors
+   *          a list to collect {@link ErrorObject}s
+   */
+  static void validateResource(Object value, String pointer, boolean requireId,
+      Set<ResourceKey> keys, List<ErrorObject> errors) {
+    if (!(value instanceof ResourceObject)) {
+      errors.add(error(pointer, "A resource object is expected"));
+      return;
+    }
+
+    ResourceObject<?> resource = (ResourceObject<?>) value;
+    if (resource.getType() == null || resource.getType().isEmpty()) {
+      errors.add(error(pointer + "/type", "The member type is required"));
+    }
+    if (requireId && resource.getId() == null) {
+      errors.add(error(pointer + "/id", "The member id is required"));
+    }
+    ResourceKey key = ResourceKey.of(resource);
+    if (keys != null && key != null && !keys.add(key)) {
+      errors.add(error(pointer,
+          "The resource " + key + " appears more than once"));
+    }
+
+    for (Map.Entry<String, RelationshipObject<?>> entry : resource
+        .relationshipsOrEmpty().entrySet()) {
+      validateRelationship(entry.getValue(),
+          pointer + "/relationships/" + escape(entry.getKey()), errors);
+    }
+  }
+
+  /**
+   * Validates an error object.
+   * 
+   * @param value
+   *          an {@link ErrorObject}
+   * @param pointer
+   *          the JSON pointer of the error object
+   * @param errors
+   *          a list to collect {@link ErrorObject}s
+   */
+  static void validateError(Object value, String pointer,
+      List<ErrorObject> errors) {
+    if (!(value instanceof ErrorObject)) {
+      errors.add(error(pointer, "An error object is expected"));
+      return;
+    }
+
+    SourceObject source = ((ErrorObject) value).getSource();
+    String sourcePointer = source == null ? null : source.getPointer();
+    if (sourcePointer != null && !sourcePointer.isEmpty()
+        && sourcePointer.charAt(0) != '/') {
+      errors.add(error(pointer + "/source/pointer",
+          "The member pointer MUST be a JSON Pointer"));
+    }
+  }
+
+  private static void validateRelationship(RelationshipObject<?> relationship,
+      String pointer, List<ErrorObject> errors) {
+    if (relationship == null || (relationship.getLinks() == null
+        && relationship.getMeta() == null
+        && relationship.getIdentifiers() == null
+        && relationship.getIdentifier() == null
+        && relationship.getData() == null)) {
+      errors.add(error(pointer, "A relationship object MUST contain at least "
+          + "one of links, data or meta"));
+      return;
+    }
+
+    if (relationship.getIdentifiers() != null) {
+      List<ResourceIdentifierObject> identifiers =
+          relationship.getIdentifiers();
+      for (int i = 0; i < identifiers.size(); i++) {
+        validateIdentifier(identifiers.get(i), pointer + "/data/" + i, errors);
+      }
+    } else if (relationship.getIdentifier() != null) {
+      validateIdentifier(relationship.getIdentifier(), pointer + "/data",
+          errors);
+    } else if (relationship.getData() != null) {
+      validateResource(relationship.getData(), pointer + "/data", true, null,
+          errors);
+    }
+  }
+
+  private static void validateIdentifier(ResourceIdentifierObject identifier,
+      String pointer, List<ErrorObject> errors) {
+    if (identifier == null) {
+      errors.add(error(pointer, "A resource identifier object is expected"));
+      return;
+    }
+    if (identifier.getType() == null || identifier.getType().isEmpty()) {
+      errors.add(error(pointer + "/type", "The member type is required"));
+    }
+    if (identifier.getId() == null) {
+      errors.add(error(pointer + "/id", "The member id is required"));
+    }
+  }
+
+  /**
+   * Escapes a member name as a JSON pointer reference token.
+   * 
+   * @param name
+   *          a member name
+   * @return a reference token
+   */
+  static String escape(String name) {
+    return name.replace("~", "~0").replace("/", "~1");
+  }
+
+  /**
+   * Creates an {@link ErrorObject} of a structural problem.
+   * 
+   * @param pointer
+   *          the JSON pointer of the offending member
+   * @param detail
+   *          the detail of the problem
+   * @return an {@link ErrorObject}
+   */
+  static ErrorObject error(String pointer, String detail) {
+    return new ErrorObject().withStatus("400").withTitle(TITLE)
+        .withDetail(detail).withSource(new SourceObject().withPointer(pointer));
+  }
+
+}
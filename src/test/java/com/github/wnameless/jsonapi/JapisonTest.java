@@ -17,12 +17,35 @@
  */
 package com.github.wnameless.jsonapi;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,8 +53,27 @@ import org.meanbean.test.BeanTester;
 import org.meanbean.test.Configuration;
 import org.meanbean.test.ConfigurationBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.github.wnameless.json.Jsonable;
 import com.google.common.base.Function;
+import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
@@ -74,6 +116,7 @@ public class JapisonTest {
     beanTester.testBean(JsonApiObject.class);
     beanTester.testBean(LinkObject.class);
     beanTester.testBean(RelationshipObject.class);
+    beanTester.testBean(ResourceIdentifierObject.class);
     beanTester.testBean(ResourceDocument.class);
     beanTester.testBean(ResourceObject.class);
     beanTester.testBean(ResourcesDocument.class);
@@ -89,6 +132,8 @@ public class JapisonTest {
         .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE).verify();
     EqualsVerifier.forClass(RelationshipObject.class)
         .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE).verify();
+    EqualsVerifier.forClass(ResourceIdentifierObject.class)
+        .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE).verify();
     EqualsVerifier.forClass(ResourceDocument.class)
         .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE).verify();
     EqualsVerifier.forClass(ResourceObject.class)
@@ -189,6 +234,16 @@ public class JapisonTest {
     ResourceObject<JpaEntity<Long>> ro;
     SourceObject so;
 
+    Jsonable<String> legacy = new Jsonable<String>() {
+
+      @Override
+      public String toJson() {
+        return "{}";
+      }
+
+    };
+    assertEquals("{}", legacy.toJson());
+
     rd = new ResourceDocument<JpaEntity<Long>>();
     assertEquals(rd.toJson(), mapper.writeValueAsString(rd));
 
@@ -217,4 +272,1323 @@ public class JapisonTest {
     assertEquals(so.toJson(), mapper.writeValueAsString(so));
   }
 
+  @Test
+  public void testWriteTo() throws Exception {
+    ResourcesDocument<JpaEntity<String>> rsd = JsonApi
+        .resourcesDocument(Arrays.asList(entity, entity), "entities");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    rsd.writeTo(out);
+    assertEquals(rsd.toJson(), out.toString("UTF-8"));
+
+    StringWriter writer = new StringWriter();
+    rsd.writeTo(writer);
+    assertEquals(rsd.toJson(), writer.toString());
+
+    writer = new StringWriter();
+    JsonGenerator generator = mapper.getFactory().createGenerator(writer);
+    generator.writeStartArray();
+    rsd.writeTo(generator);
+    JsonApi.link().withHref("http://example.com").writeTo(generator);
+    generator.writeEndArray();
+    generator.close();
+    assertEquals("[" + rsd.toJson() + ",{\"href\":\"http://example.com\"}]",
+        writer.toString());
+  }
+
+  @Test
+  public void testObjectMapperFactoryCaches() {
+    ObjectMapper defaultMapper = ObjectMapperFactory.getObjectMapper();
+    try {
+      ObjectWriter writer =
+          ObjectMapperFactory.getObjectWriter(ResourceDocument.class);
+      assertSame(writer,
+          ObjectMapperFactory.getObjectWriter(ResourceDocument.class));
+      ObjectReader reader = ObjectMapperFactory
+          .getObjectReader(ResourcesDocument.class, JpaEntity.class);
+      assertSame(reader, ObjectMapperFactory
+          .getObjectReader(ResourcesDocument.class, JpaEntity.class));
+      JavaType type = ObjectMapperFactory
+          .constructType(ResourcesDocument.class, JpaEntity.class);
+      assertEquals(JpaEntity.class, type.containedType(0).getRawClass());
+
+      ObjectMapperFactory.setObjectMapper(new ObjectMapper());
+      assertNotSame(writer,
+          ObjectMapperFactory.getObjectWriter(ResourceDocument.class));
+      assertNotSame(reader, ObjectMapperFactory
+          .getObjectReader(ResourcesDocument.class, JpaEntity.class));
+    } finally {
+      ObjectMapperFactory.setObjectMapper(defaultMapper);
+    }
+  }
+
+  @Test
+  public void testObjectMapperSnapshot() {
+    ObjectMapperSnapshot current = ObjectMapperFactory.getSnapshot();
+    try {
+      ObjectMapperSnapshot next =
+          new ObjectMapperSnapshot(new ObjectMapper()).warmUp(LinkObject.class);
+      assertFalse(ObjectMapperFactory.compareAndSetSnapshot(next, next));
+      assertTrue(ObjectMapperFactory.compareAndSetSnapshot(current, next));
+      assertSame(next, ObjectMapperFactory.getSnapshot());
+      assertSame(next.getObjectMapper(), ObjectMapperFactory.getObjectMapper());
+      assertSame(next.getObjectWriter(LinkObject.class),
+          ObjectMapperFactory.getObjectWriter(LinkObject.class));
+      assertSame(next, ObjectMapperFactory.setSnapshot(current));
+    } finally {
+      ObjectMapperFactory.setSnapshot(current);
+    }
+  }
+
+  @Test
+  public void testReadDocuments() throws Exception {
+    ResourceDocument<JpaEntity<String>> rd =
+        JsonApi.resourceDocument(entity, "entities", "1");
+    String json = rd.toJson();
+    @SuppressWarnings("rawtypes")
+    ResourceDocument<JpaEntity> rdRead =
+        JsonApi.readResourceDocument(json, JpaEntity.class);
+    assertEquals("entities", rdRead.getData().getType());
+    assertEquals("1", rdRead.getData().getId());
+    assertEquals("hahaha", rdRead.getData().getAttributes().getData());
+    assertEquals(json, JsonApi
+        .readResourceDocument(json.getBytes("UTF-8"), JpaEntity.class)
+        .toJson());
+    assertEquals(json, JsonApi.readResourceDocument(
+        new ByteArrayInputStream(json.getBytes("UTF-8")), JpaEntity.class)
+        .toJson());
+
+    ResourcesDocument<JpaEntity<String>> rsd = JsonApi
+        .resourcesDocument(Arrays.asList(entity, entity), "entities");
+    json = rsd.toJson();
+    @SuppressWarnings("rawtypes")
+    ResourcesDocument<JpaEntity> rsdRead =
+        JsonApi.readResourcesDocument(json, JpaEntity.class);
+    assertEquals(2, rsdRead.getData().size());
+    assertEquals("hahaha",
+        rsdRead.getData().get(1).getAttributes().getData());
+    assertEquals(json, JsonApi
+        .readResourcesDocument(json.getBytes("UTF-8"), JpaEntity.class)
+        .toJson());
+    assertEquals(json, JsonApi.readResourcesDocument(
+        new ByteArrayInputStream(json.getBytes("UTF-8")), JpaEntity.class)
+        .toJson());
+
+    ErrorsDocument ed = JsonApi.errorsDocument();
+    ed.getErrors().add(JsonApi.error().withStatus("500").withTitle("Oops!"));
+    json = ed.toJson();
+    assertEquals(ed, JsonApi.readErrorsDocument(json));
+    assertEquals(ed, JsonApi.readErrorsDocument(json.getBytes("UTF-8")));
+    assertEquals(ed, JsonApi.readErrorsDocument(
+        new ByteArrayInputStream(json.getBytes("UTF-8"))));
+  }
+
+  @Test
+  public void testResourcesDocumentReader() throws Exception {
+    String json = "{\"meta\":{\"total\":2},\"data\":["
+        + "{\"type\":\"entities\",\"id\":\"1\",\"attributes\":{\"data\":\"a\"}},"
+        + "{\"type\":\"entities\",\"id\":\"2\",\"attributes\":{\"data\":\"b\"}}],"
+        + "\"included\":[{\"type\":\"others\",\"id\":\"3\"}],"
+        + "\"links\":{\"self\":{\"href\":\"/entities\"}}}";
+
+    @SuppressWarnings("rawtypes")
+    ResourcesDocumentReader<JpaEntity> reader = JsonApi.resourcesDocumentReader(
+        new ByteArrayInputStream(json.getBytes("UTF-8")), JpaEntity.class);
+    try {
+      assertTrue(reader.hasNext());
+      assertEquals(Collections.singletonMap("total", 2), reader.getMeta());
+      assertNull(reader.getIncluded());
+      assertEquals("1", reader.next().getId());
+      @SuppressWarnings("rawtypes")
+      ResourceObject<JpaEntity> second = reader.next();
+      assertEquals("2", second.getId());
+      assertEquals("b", second.getAttributes().getData());
+      assertFalse(reader.hasNext());
+      assertEquals("others", reader.getIncluded().get(0).getType());
+      assertEquals("/entities", reader.getLinks().get("self").getHref());
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testResourcesDocumentWriter() throws Exception {
+    Function<JpaEntity<String>, String> idProvider =
+        new Function<JpaEntity<String>, String>() {
+
+          @Override
+          public String apply(JpaEntity<String> input) {
+            return input.getData();
+          }
+
+        };
+    JpaEntity<String> other = new JpaEntity<String>();
+    other.setData("hohoho");
+    List<JpaEntity<String>> entities = Arrays.asList(entity, other);
+
+    ResourcesDocument<JpaEntity<String>> rsd =
+        JsonApi.resourcesDocument(entities, "entities", idProvider);
+    assertEquals(rsd.toJson(), JsonApi
+        .resourcesDocumentWriter(entities.iterator(), "entities", idProvider)
+        .toJson());
+
+    rsd.setMeta(Collections.singletonMap("total", 2));
+    rsd.getLinks().put("self", JsonApi.link().withHref("/entities"));
+    rsd.getIncluded().add(JsonApi.resource(other, "others", "1"));
+    ResourcesDocumentWriter<JpaEntity<String>> writer = JsonApi
+        .resourcesDocumentWriter(entities.iterator(), "entities", idProvider)
+        .withMeta(rsd.getMeta()).withLinks(rsd.getLinks())
+        .withIncluded(rsd.getIncluded());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.writeTo(out);
+    assertEquals(rsd.toJson(), out.toString("UTF-8"));
+    try {
+      writer.toJson();
+      fail();
+    } catch (IllegalStateException e) {}
+  }
+
+  @Test
+  public void testLazyCollections() throws Exception {
+    ResourceObject<String> ro = new ResourceObject<String>();
+    assertEquals(new ResourceObject<String>(), ro);
+    assertEquals(mapper.writeValueAsString(ro), ro.toJson());
+    ro.getLinks().put("self", JsonApi.link().withHref("/entities/1"));
+    ro.getRelationships().put("other", JsonApi.relationship());
+    ro.getIncluded().add(JsonApi.resource());
+    assertSame(ro.getLinks(), ro.getLinks());
+    assertEquals(1, ro.getLinks().size());
+    assertEquals(1, ro.getRelationships().size());
+    assertEquals(1, ro.getIncluded().size());
+
+    ResourcesDocument<String> rsd = new ResourcesDocument<String>();
+    assertEquals("{\"data\":[]}", rsd.toJson());
+    rsd.getData().add(ro);
+    rsd.getLinks().put("self", JsonApi.link().withHref("/entities"));
+    rsd.getIncluded().add(JsonApi.resource());
+    assertEquals(rsd, JsonApi.readResourcesDocument(rsd.toJson(), String.class));
+
+    ErrorsDocument ed = new ErrorsDocument();
+    assertEquals("{\"errors\":[]}", ed.toJson());
+    ErrorObject eo = new ErrorObject();
+    assertEquals("{}", eo.toJson());
+    eo.getLinks().put("about", JsonApi.link().withHref("/errors/1"));
+    ed.getErrors().add(eo);
+    assertEquals(ed, JsonApi.readErrorsDocument(ed.toJson()));
+  }
+
+  @Test
+  public void testIncludedResources() {
+    IncludedResources included = new IncludedResources();
+    assertTrue(included.include(JsonApi.resource(null, "people", "1")));
+    assertFalse(included.include(JsonApi.resource(entity, "people", "1")
+        .withMeta("meta").withLinks(Collections.singletonMap("self",
+            JsonApi.link().withHref("/people/1")))));
+    assertTrue(included.include(JsonApi.resource(null, "people", "2")));
+    assertTrue(included.include(JsonApi.resource(null, "people")));
+    assertTrue(included.include(JsonApi.resource(null, "people")));
+    assertEquals(4, included.size());
+    assertTrue(included.contains("people", "1"));
+    assertSame(entity, included.get("people", "1").getAttributes());
+    assertEquals("meta", included.get("people", "1").getMeta());
+    assertEquals("/people/1",
+        included.get("people", "1").getLinks().get("self").getHref());
+
+    included.exclude("people", "2");
+    assertFalse(included.contains("people", "2"));
+    assertFalse(included.include(JsonApi.resource(null, "people", "2")));
+    assertEquals(3, included.size());
+
+    included.remove(0);
+    assertFalse(included.contains("people", "1"));
+    assertTrue(included.include(JsonApi.resource(null, "people", "1")));
+    try {
+      included.add(JsonApi.resource(null, "people", "1"));
+      fail();
+    } catch (IllegalArgumentException e) {}
+    try {
+      included.addAll(0, Arrays.<ResourceObject<?>> asList(
+          JsonApi.resource(null, "people", "3"),
+          JsonApi.resource(null, "people", "2")));
+      fail();
+    } catch (IllegalArgumentException e) {}
+    assertEquals("3", included.get(0).getId());
+    assertTrue(included.add(JsonApi.resource(null, "people", "4")));
+    assertEquals("4", included.get(included.size() - 1).getId());
+
+    ResourceObject<?> frozen = JsonApi.resource(null, "people", "5")
+        .withMeta("meta").freeze();
+    included.include(frozen);
+    assertFalse(included.include(JsonApi.resource(null, "people", "5")));
+    assertSame(frozen, included.get("people", "5"));
+    assertFalse(included.include(JsonApi.resource(entity, "people", "5")
+        .withLinks(Collections.singletonMap("self",
+            JsonApi.link().withHref("/people/5")))));
+    ResourceObject<?> merged = included.get("people", "5");
+    assertNotSame(frozen, merged);
+    assertSame(merged, included.get(included.size() - 1));
+    assertSame(entity, merged.getAttributes());
+    assertEquals("meta", merged.getMeta());
+    assertEquals("/people/5", merged.getLinks().get("self").getHref());
+    assertNull(frozen.getAttributes());
+    try {
+      merged.setMeta(null);
+      fail();
+    } catch (UnsupportedOperationException e) {}
+
+    ResourcesDocument<JpaEntity<String>> rsd = JsonApi.resourcesDocument(
+        Arrays.asList(entity), "entities",
+        new Function<JpaEntity<String>, String>() {
+
+          @Override
+          public String apply(JpaEntity<String> input) {
+            return "1";
+          }
+
+        });
+    rsd.include(JsonApi.resource(null, "entities", "1"))
+        .include(JsonApi.resource(null, "people", "1"))
+        .include(JsonApi.resource(entity, "people", "1"));
+    rsd.getData().add(JsonApi.resource(entity, "entities", "2"));
+    rsd.include(JsonApi.resource(null, "entities", "2"));
+    assertEquals(1, rsd.getIncluded().size());
+    assertSame(entity, rsd.getIncluded().get(0).getAttributes());
+
+    ResourceDocument<JpaEntity<String>> rd =
+        JsonApi.resourceDocument(entity, "entities", "1");
+    rd.include(JsonApi.resource(null, "entities", "1"));
+    assertTrue(rd.getIncluded().isEmpty());
+    rd.setIncluded(Arrays.<ResourceObject<?>> asList(
+        JsonApi.resource(null, "people", "1"),
+        JsonApi.resource(null, "people", "1")));
+    assertEquals(2, rd.getIncluded().size());
+    rd.include(JsonApi.resource(null, "people", "2"));
+    assertEquals(2, rd.getIncluded().size());
+    assertEquals("2", rd.getIncluded().get(1).getId());
+  }
+
+  @Test
+  public void testSparseFieldsets() throws Exception {
+    Map<String, Object> person = new LinkedHashMap<String, Object>();
+    person.put("name", "Mary");
+    person.put("age", 30);
+    ResourceObject<JpaEntity<String>> ro =
+        JsonApi.resource(entity, "entities", "1");
+    ro.getRelationships().put("author",
+        JsonApi.relationship(null, "people", "9"));
+    ro.getRelationships().put("comments",
+        JsonApi.relationship(null, "comments", "5"));
+    ResourceDocument<JpaEntity<String>> rd =
+        JsonApi.<JpaEntity<String>> resourceDocument().withData(ro);
+    rd.include(JsonApi.resource(person, "people", "9"));
+    assertEquals(rd.toJson(), new SparseFieldsets().toJson(rd));
+
+    SparseFieldsets fieldsets = SparseFieldsets.fromQueryParameters(
+        ImmutableMap.of("fields[entities]", "data,author", "fields[people]",
+            "name", "page[size]", "10"));
+    assertEquals(ImmutableSet.of("data", "author"),
+        fieldsets.getFields("entities"));
+    assertNull(fieldsets.getFields("comments"));
+    String json = fieldsets.toJson(rd);
+    assertEquals("{\"data\":{\"type\":\"entities\",\"id\":\"1\","
+        + "\"attributes\":{\"data\":\"hahaha\"},\"relationships\":{"
+        + "\"author\":{\"data\":{\"type\":\"people\",\"id\":\"9\"}}}},"
+        + "\"included\":[{\"type\":\"people\",\"id\":\"9\","
+        + "\"attributes\":{\"name\":\"Mary\"}}]}", json);
+    assertEquals(json, fieldsets.toJson(rd));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    fieldsets.writeTo(rd, out);
+    assertEquals(json, out.toString("UTF-8"));
+    assertEquals(json, new SparseFieldsets().withFields("entities", "author",
+        "data").withFields("people", "name").toJson(rd));
+    assertEquals(
+        "{\"type\":\"people\",\"id\":\"9\",\"attributes\":{}}",
+        new SparseFieldsets().withFields("people")
+            .toJson(rd.getIncluded().get(0)));
+  }
+
+  @Test
+  public void testSparseFieldsetsPropertyFailure() throws Exception {
+    try {
+      new SparseFieldsets().withFields("brokens", "secret").writeTo(
+          JsonApi.resource(new Broken(), "brokens", "1"),
+          new ByteArrayOutputStream());
+      fail();
+    } catch (JsonMappingException e) {
+      assertEquals("secret", e.getPath().get(0).getFieldName());
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  public static class Broken {
+
+    public String getName() {
+      return "broken";
+    }
+
+    public String getSecret() {
+      throw new IllegalStateException();
+    }
+
+  }
+
+  @Test
+  public void testIncludeResolver() {
+    final List<String> calls = new ArrayList<String>();
+    BatchLoader loader = new BatchLoader() {
+
+      @Override
+      public Iterable<? extends ResourceObject<?>> load(String type,
+          Set<String> ids) {
+        calls.add(type + ids);
+        List<ResourceObject<?>> resources = new ArrayList<ResourceObject<?>>();
+        for (String id : ids) {
+          ResourceObject<String> resource = JsonApi.resource(id, type, id);
+          if (type.equals("people")) {
+            resource.getRelationships().put("company",
+                JsonApi.relationship(null, "companies", "c"));
+          }
+          resources.add(resource);
+        }
+        return resources;
+      }
+
+    };
+
+    ResourcesDocument<String> rsd = JsonApi.resourcesDocument();
+    for (int i = 1; i <= 3; i++) {
+      ResourceObject<String> article =
+          JsonApi.resource("a", "articles", "" + i);
+      article.getRelationships().put("author",
+          JsonApi.relationship(null, "people", "" + (i % 2)));
+      article.getRelationships().put("comments",
+          JsonApi.relationship(null, "articles", "1"));
+      rsd.getData().add(article);
+    }
+
+    IncludeResolver resolver =
+        IncludeResolver.parse("author.company, comments.author");
+    assertEquals(Arrays.asList("author.company", "comments.author"),
+        resolver.getPaths());
+    resolver.resolve(rsd, loader);
+    assertEquals(Arrays.asList("people[1, 0]", "companies[c]"), calls);
+    assertEquals(3, rsd.getIncluded().size());
+    IncludedResources included = (IncludedResources) rsd.getIncluded();
+    assertTrue(included.contains("people", "0"));
+    assertTrue(included.contains("people", "1"));
+    assertTrue(included.contains("companies", "c"));
+    assertFalse(included.contains("articles", "1"));
+
+    calls.clear();
+    resolver.resolve(rsd, loader);
+    assertTrue(calls.isEmpty());
+
+    ResourceDocument<String> rd =
+        JsonApi.resourceDocument("a", "articles", "1");
+    rd.getData().getRelationships().put("author",
+        JsonApi.relationship(null, "people", "1"));
+    IncludeResolver.parse("author").resolve(rd, loader);
+    assertEquals(Arrays.asList("people[1]"), calls);
+    assertEquals(1, rd.getIncluded().size());
+    IncludeResolver.parse((String) null).resolve(rd, loader);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIncludeResolverInvalidPath() {
+    IncludeResolver.parse("author..company");
+  }
+
+  @Test
+  public void testResourceLinkage() throws Exception {
+    RelationshipObject<String> toMany = JsonApi.relationship(Arrays.asList(
+        JsonApi.identifier("comments", "5"),
+        JsonApi.identifier("comments", "12").withMeta("new")));
+    assertEquals("{\"data\":[{\"type\":\"comments\",\"id\":\"5\"},"
+        + "{\"type\":\"comments\",\"id\":\"12\",\"meta\":\"new\"}]}",
+        toMany.toJson());
+    assertEquals(toMany,
+        mapper.readValue(toMany.toJson(), RelationshipObject.class));
+    RelationshipObject<String> empty = JsonApi
+        .relationship(Collections.<ResourceIdentifierObject> emptyList());
+    assertEquals("{\"data\":[]}", empty.toJson());
+    assertEquals(empty,
+        mapper.readValue(empty.toJson(), RelationshipObject.class));
+
+    RelationshipObject<String> toOne = JsonApi
+        .<String> relationship(JsonApi.identifier("people", "9"))
+        .withLinks(Collections.singletonMap("related",
+            JsonApi.link().withHref("/articles/1/author")));
+    assertEquals("{\"links\":{\"related\":"
+        + "{\"href\":\"/articles/1/author\"}},"
+        + "\"data\":{\"type\":\"people\",\"id\":\"9\"}}",
+        toOne.toJson());
+    RelationshipObject<?> readToOne =
+        mapper.readValue(toOne.toJson(), RelationshipObject.class);
+    assertEquals("9", readToOne.getData().getId());
+    assertEquals(toOne.getLinkage(), readToOne.getLinkage());
+    assertEquals(toOne.toJson(), readToOne.toJson());
+    assertEquals(Arrays.asList(JsonApi.identifier("people", "9")),
+        toOne.getLinkage());
+
+    RelationshipObject<JpaEntity<String>> full =
+        JsonApi.relationship(entity, "entities", "1");
+    RelationshipObject<JpaEntity<String>> read = mapper.readValue(
+        full.toJson(),
+        new TypeReference<RelationshipObject<JpaEntity<String>>>() {});
+    assertNull(read.getIdentifier());
+    assertEquals("hahaha", read.getData().getAttributes().getData());
+    assertEquals(Arrays.asList(JsonApi.identifier("entities", "1")),
+        read.getLinkage());
+    assertTrue(JsonApi.relationship().getLinkage().isEmpty());
+
+    ResourceDocument<String> rd =
+        JsonApi.resourceDocument("a", "articles", "1");
+    rd.getData().getRelationships().put("comments", toMany);
+    ResourceDocument<String> readRd =
+        JsonApi.readResourceDocument(rd.toJson(), String.class);
+    assertEquals(toMany, readRd.getData().getRelationships().get("comments"));
+
+    final List<String> calls = new ArrayList<String>();
+    IncludeResolver.parse("comments").resolve(rd, new BatchLoader() {
+
+      @Override
+      public Iterable<? extends ResourceObject<?>> load(String type,
+          Set<String> ids) {
+        calls.add(type + ids);
+        List<ResourceObject<?>> resources = new ArrayList<ResourceObject<?>>();
+        for (String id : ids) {
+          resources.add(JsonApi.resource("c" + id, type, id));
+        }
+        return resources;
+      }
+
+    });
+    assertEquals(Arrays.asList("comments[5, 12]"), calls);
+    assertEquals(2, rd.getIncluded().size());
+  }
+
+  @Test
+  public void testParallelResourcesDocument() {
+    List<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 10000; i++) {
+      numbers.add(i);
+    }
+    Function<Integer, String> idProvider = new Function<Integer, String>() {
+
+      @Override
+      public String apply(Integer input) {
+        return "n" + input;
+      }
+
+    };
+
+    ResourcesDocument<Integer> rsd =
+        JsonApi.parallelResourcesDocument(numbers, "numbers", idProvider);
+    assertEquals(
+        JsonApi.resourcesDocument(numbers, "numbers", idProvider).toJson(),
+        rsd.toJson());
+    assertEquals(10000, rsd.getData().size());
+    assertEquals("n9999", rsd.getData().get(9999).getId());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      rsd = JsonApi.parallelResourcesDocument(numbers.subList(0, 10),
+          "numbers", idProvider, executor);
+      assertEquals(10, rsd.getData().size());
+      rsd = JsonApi.parallelResourcesDocument(numbers, "numbers", null,
+          executor);
+      assertEquals(Integer.valueOf(5000),
+          rsd.getData().get(5000).getAttributes());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testParallelResourcesDocumentFailure() {
+    List<Integer> numbers = new ArrayList<Integer>();
+    for (int i = 0; i < 10000; i++) {
+      numbers.add(i);
+    }
+    JsonApi.parallelResourcesDocument(numbers, "numbers",
+        new Function<Integer, String>() {
+
+          @Override
+          public String apply(Integer input) {
+            if (input == 7777) throw new IllegalStateException();
+            return input.toString();
+          }
+
+        });
+  }
+
+  @Test
+  public void testParallelSerialization() throws Exception {
+    List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+    for (int i = 0; i < 20000; i++) {
+      Map<String, Object> row = new LinkedHashMap<String, Object>();
+      row.put("n", i);
+      row.put("text", "\u00e9\"" + i);
+      rows.add(row);
+    }
+    ResourcesDocument<Map<String, Object>> rsd =
+        JsonApi.resourcesDocument(rows, "rows");
+    rsd.getData().get(3).getRelationships().put("author",
+        JsonApi.relationship(JsonApi.identifier("people", "9")));
+    rsd.include(JsonApi.resource(null, "people", "9"));
+    rsd.withMeta("meta").withJsonapi(JsonApi.jsonApi().withVersion("1.0"))
+        .getLinks().put("self", JsonApi.link().withHref("/rows"));
+
+    String json = rsd.toJson();
+    assertEquals(json, rsd.toJson(null));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      rsd.writeTo(out, executor);
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(json, out.toString("UTF-8"));
+
+    rsd = JsonApi.resourcesDocument(rows, "rows");
+    assertEquals(rsd.toJson(), rsd.toJson(null));
+    rsd = JsonApi.resourcesDocument();
+    assertEquals(rsd.toJson(), rsd.toJson(null));
+
+    ObjectMapperSnapshot snapshot = ObjectMapperFactory.getSnapshot();
+    try {
+      ObjectMapperFactory.setObjectMapper(
+          new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT));
+      rsd = JsonApi.resourcesDocument(rows, "rows");
+      assertEquals(rsd.toJson(), rsd.toJson(null));
+    } finally {
+      ObjectMapperFactory.setSnapshot(snapshot);
+    }
+  }
+
+  @Test
+  public void testToJsonBytes() throws Exception {
+    ResourcesDocument<JpaEntity<String>> rsd = JsonApi
+        .resourcesDocument(Arrays.asList(entity, entity), "entities");
+    byte[] expected = rsd.toJson().getBytes("UTF-8");
+    assertArrayEquals(expected, rsd.toJsonBytes());
+    assertArrayEquals(expected, rsd.toJsonBytes());
+    assertArrayEquals(JsonApi.error().withTitle("\u00e9").toJson()
+        .getBytes("UTF-8"), JsonApi.error().withTitle("\u00e9").toJsonBytes());
+
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    buffer.put((byte) '[');
+    rsd.writeTo(buffer);
+    assertEquals(expected.length + 1, buffer.position());
+    buffer.flip().position(1);
+    byte[] written = new byte[buffer.remaining()];
+    buffer.get(written);
+    assertArrayEquals(expected, written);
+
+    ResourcesDocumentWriter<JpaEntity<String>> rsdw = JsonApi
+        .resourcesDocumentWriter(Arrays.asList(entity, entity).iterator(),
+            "entities");
+    assertArrayEquals(expected, rsdw.toJsonBytes());
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void testWriteToByteBufferOverflow() throws Exception {
+    JsonApi.resource(entity, "entities", "1")
+        .writeTo(ByteBuffer.allocate(8));
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void testWriteToByteBufferOverflowWhileSerializing()
+      throws Exception {
+    JsonApi.resource(Strings.repeat("a", 65536), "strings", "1")
+        .writeTo(ByteBuffer.allocate(1024));
+  }
+
+  @Test
+  public void testSmileFormat() throws Exception {
+    ResourcesDocument<String> rsd =
+        JsonApi.resourcesDocument(Arrays.asList("a", "b", "c"), "strings",
+            new Function<String, String>() {
+
+              @Override
+              public String apply(String input) {
+                return input;
+              }
+
+            });
+    rsd.getData().get(0).getRelationships().put("next",
+        JsonApi.relationship(JsonApi.identifier("strings", "b")));
+    rsd.include(JsonApi.resource("d", "strings", "d")).withMeta("meta");
+
+    byte[] smile = DocumentFormat.SMILE.toBytes(rsd);
+    assertEquals(rsd.toJson(), JsonApi
+        .readResourcesDocument(smile, String.class, DocumentFormat.SMILE)
+        .toJson());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DocumentFormat.SMILE.writeTo(rsd, out);
+    assertArrayEquals(smile, out.toByteArray());
+    assertEquals(rsd.toJson(),
+        JsonApi.readResourcesDocument(new ByteArrayInputStream(smile),
+            String.class, DocumentFormat.SMILE).toJson());
+    assertArrayEquals(rsd.toJsonBytes(), DocumentFormat.JSON.toBytes(rsd));
+
+    ResourcesDocumentReader<String> reader =
+        new ResourcesDocumentReader<String>(new ByteArrayInputStream(smile),
+            String.class,
+        ObjectMapperFactory.getSnapshot().forFormat(DocumentFormat.SMILE));
+    assertEquals("a", reader.next().getAttributes());
+    reader.close();
+
+    ResourceDocument<String> rd = JsonApi.resourceDocument("a", "strings", "a");
+    assertEquals(rd.toJson(), JsonApi.readResourceDocument(
+        DocumentFormat.SMILE.toBytes(rd), String.class, DocumentFormat.SMILE)
+        .toJson());
+    ErrorsDocument ed = JsonApi.errorsDocument();
+    ed.getErrors().add(JsonApi.error().withTitle("Oops!"));
+    assertEquals(ed.toJson(), JsonApi.readErrorsDocument(
+        DocumentFormat.SMILE.toBytes(ed), DocumentFormat.SMILE).toJson());
+
+    assertSame(DocumentFormat.SMILE,
+        DocumentFormat.fromMediaType("application/vnd.api+smile"));
+    assertSame(DocumentFormat.JSON,
+        DocumentFormat.fromMediaType("Application/vnd.api+JSON; ext=bulk"));
+    assertNull(DocumentFormat.fromMediaType("text/plain"));
+    assertSame(DocumentFormat.JSON, DocumentFormat.negotiate(null));
+    assertSame(DocumentFormat.JSON, DocumentFormat.negotiate("*/*"));
+    assertSame(DocumentFormat.SMILE,
+        DocumentFormat.negotiate("application/vnd.api+smile"));
+    assertSame(DocumentFormat.SMILE, DocumentFormat.negotiate(
+        "application/vnd.api+json;q=0.5, application/vnd.api+smile"));
+    assertSame(DocumentFormat.JSON, DocumentFormat.negotiate(
+        "application/vnd.api+smile, application/vnd.api+json"));
+    assertNull(DocumentFormat.negotiate("text/html"));
+    assertNull(DocumentFormat.negotiate("application/vnd.api+smile;q=0"));
+  }
+
+  @Test
+  public void testSmileFormatWithModule() throws Exception {
+    SimpleModule module = new SimpleModule();
+    module.addSerializer(UUID.class, new StdSerializer<UUID>(UUID.class) {
+
+      @Override
+      public void serialize(UUID value, JsonGenerator gen,
+          SerializerProvider provider) throws IOException {
+        gen.writeString("urn:uuid:" + value);
+      }
+
+    });
+    module.addDeserializer(UUID.class, new StdDeserializer<UUID>(UUID.class) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public UUID deserialize(JsonParser p, DeserializationContext ctxt)
+          throws IOException {
+        return UUID.fromString(p.getText().substring("urn:uuid:".length()));
+      }
+
+    });
+
+    ObjectMapperSnapshot snapshot = ObjectMapperFactory.getSnapshot();
+    try {
+      ObjectMapperFactory
+          .setObjectMapper(new ObjectMapper().registerModule(module));
+      UUID uuid = UUID.randomUUID();
+      ResourceDocument<UUID> rd = JsonApi.resourceDocument(uuid, "uuids", "1");
+      assertTrue(rd.toJson().contains("urn:uuid:" + uuid));
+      assertEquals(uuid,
+          JsonApi.readResourceDocument(DocumentFormat.SMILE.toBytes(rd),
+              UUID.class, DocumentFormat.SMILE).getData().getAttributes());
+    } finally {
+      ObjectMapperFactory.setSnapshot(snapshot);
+    }
+  }
+
+  @Test
+  public void testStructuralValidator() throws Exception {
+    ResourcesDocument<String> rsd =
+        JsonApi.resourcesDocument(Arrays.asList("a", "b"), "strings");
+    rsd.getData().get(0).withId("a").getRelationships().put("next",
+        JsonApi.relationship(
+            Arrays.asList(JsonApi.identifier("strings", "b"),
+                JsonApi.identifier("strings", null))));
+    rsd.getData().get(1).withType(null).getRelationships().put("none",
+        new RelationshipObject<String>());
+    rsd.getIncluded().add(JsonApi.resource("c", "strings", "a"));
+    rsd.getIncluded().add(JsonApi.resource("d", "strings", null));
+
+    List<ErrorObject> errors = new StructuralValidator().validate(rsd);
+    List<String> pointers = new ArrayList<String>();
+    for (ErrorObject error : errors) {
+      assertEquals("400", error.getStatus());
+      pointers.add(error.getSource().getPointer());
+    }
+    assertEquals(Arrays.asList("/data/0/relationships/next/data/1/id",
+        "/data/1/type", "/data/1/relationships/none", "/included/0",
+        "/included/1/id"), pointers);
+
+    ResourceDocument<String> rd = JsonApi.resourceDocument("a", "strings");
+    assertTrue(new StructuralValidator().validate(rd).isEmpty());
+    assertTrue(JsonApi.validate(rd, new StructuralValidator()).isEmpty());
+    ErrorsDocument ed = JsonApi.errorsDocument();
+    ed.getIncluded().add(JsonApi.resource("a", "strings", "a"));
+    assertEquals("/included", new StructuralValidator().validate(ed).get(0)
+        .getSource().getPointer());
+
+    ResourcesDocument<Object> read = JsonApi.readResourcesDocument(
+        "{\"data\":[],\"included\":[{\"type\":\"a\",\"id\":\"1\"},"
+            + "{\"type\":\"a\",\"id\":\"1\"}]}",
+        Object.class);
+    assertEquals(2, read.getIncluded().size());
+    assertEquals("/included/1", new StructuralValidator().validate(read).get(0)
+        .getSource().getPointer());
+  }
+
+  @Test
+  public void testBeanDocumentValidator() {
+    ResourcesDocument<String> rsd =
+        JsonApi.resourcesDocument(Arrays.asList("a", "b"), "strings");
+    rsd.getData().get(1).getLinks().put("self", new LinkObject());
+
+    assertTrue(JsonApi.validate(JsonApi.resourceDocument("a", "strings"))
+        .isEmpty());
+    List<ErrorObject> errors = JsonApi.validate(rsd);
+    assertEquals(1, errors.size());
+    assertEquals("422", errors.get(0).getStatus());
+    assertEquals("/data/1/links/self/href",
+        errors.get(0).getSource().getPointer());
+    assertSame(BeanDocumentValidator.getDefault(),
+        BeanDocumentValidator.getDefault());
+  }
+
+  @Test
+  public void testValidatingReader() throws Exception {
+    String json = "{\"data\":[{\"type\":\"a\",\"id\":\"0\"},"
+        + "{\"type\":\"a\",\"id\":\"1\"},{\"type\":\"a\"},"
+        + "{\"id\":\"3\"},{\"type\": <not even JSON>";
+    ResourcesDocumentReader<Object> reader =
+        new ResourcesDocumentReader<Object>(
+            new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class)
+                .withValidation(true);
+    assertTrue(reader.isValidating());
+    assertEquals("0", reader.next().getId());
+    assertEquals("1", reader.next().getId());
+    assertNull(reader.next().getId());
+    try {
+      reader.next();
+      fail();
+    } catch (InvalidDocumentException e) {
+      assertEquals("/data/3/type", e.getPointer());
+      assertEquals("400", e.getError().getStatus());
+    }
+    reader.close();
+
+    json = "{\"data\":[{\"type\":\"a\",\"id\":\"0\"}],"
+        + "\"included\":[{\"type\":\"b\",\"id\":\"0\"},"
+        + "{\"type\":\"a\",\"id\":\"0\"}]}";
+    try {
+      JsonApi.readValidResourcesDocument(
+          new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class);
+      fail();
+    } catch (InvalidDocumentException e) {
+      assertEquals("/included/1", e.getPointer());
+    }
+
+    json = "{\"errors\":[],\"data\":[]}";
+    try {
+      JsonApi.readValidResourcesDocument(
+          new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class);
+      fail();
+    } catch (InvalidDocumentException e) {
+      assertEquals("", e.getPointer());
+    }
+
+    json = "{\"data\":[],\"included\":[{\"type\":\"b\"},<not even JSON>";
+    try {
+      JsonApi.readValidResourcesDocument(
+          new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class);
+      fail();
+    } catch (InvalidDocumentException e) {
+      assertEquals("/included/0/id", e.getPointer());
+    }
+
+    json = "{\"errors\":[{\"title\":\"Oops!\"},"
+        + "{\"source\":{\"pointer\":\"data\"}}]}";
+    reader = new ResourcesDocumentReader<Object>(
+        new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class);
+    assertFalse(reader.hasNext());
+    assertEquals("Oops!", reader.getErrors().get(0).getTitle());
+    reader.close();
+    try {
+      JsonApi.readValidResourcesDocument(
+          new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class);
+      fail();
+    } catch (InvalidDocumentException e) {
+      assertEquals("/errors/1/source/pointer", e.getPointer());
+    }
+
+    json = "{\"data\":[{\"type\":\"a\",\"id\":\"0\"},"
+        + "{\"type\":\"a\",\"id\":\"0\"}]}";
+    reader = new ResourcesDocumentReader<Object>(
+        new ByteArrayInputStream(json.getBytes("UTF-8")), Object.class)
+            .withValidation(true).withUniquenessCheck(false);
+    assertFalse(reader.isCheckingUniqueness());
+    assertEquals(2, reader.readDocument().getData().size());
+    reader.close();
+
+    ResourcesDocument<String> rsd =
+        JsonApi.resourcesDocument(Arrays.asList("a", "b"), "strings");
+    rsd.include(JsonApi.resource("c", "strings", "c")).withMeta("meta");
+    assertEquals(rsd.toJson(),
+        JsonApi.readValidResourcesDocument(
+            new ByteArrayInputStream(rsd.toJsonBytes()), String.class)
+            .toJson());
+  }
+
+  @Test
+  public void testAttributesWriterRegistry() throws Exception {
+    ResourcesDocument<String> rsd =
+        JsonApi.resourcesDocument(Arrays.asList("a", "b"), "strings");
+    rsd.include(JsonApi.resource("c", "letters", "c"));
+    rsd.include(JsonApi.resource(Collections.singletonMap("d", "d"), "letters",
+        "d"));
+    String json = rsd.toJson();
+
+    AttributesWriterRegistry registry = new AttributesWriterRegistry()
+        .register(String.class, new AttributesWriter<Object>() {
+
+          @Override
+          public void write(Object attributes, JsonGenerator generator)
+              throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("value", attributes.toString());
+            generator.writeEndObject();
+          }
+
+        }).register("letters", String.class, new AttributesWriter<String>() {
+
+          @Override
+          public void write(String attributes, JsonGenerator generator)
+              throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("letter", attributes);
+            generator.writeEndObject();
+          }
+
+        });
+    ObjectMapperSnapshot snapshot = ObjectMapperFactory.getSnapshot();
+    try {
+      ObjectMapperFactory
+          .setSnapshot(snapshot.withAttributesWriters(registry));
+      AttributesWriter<Object> failing = new AttributesWriter<Object>() {
+
+        @Override
+        public void write(Object attributes, JsonGenerator generator) {
+          throw new AssertionError();
+        }
+
+      };
+      registry.register("strings", Object.class, failing);
+      AttributesWriterRegistry attached =
+          ObjectMapperFactory.getSnapshot().getAttributesWriters();
+      assertNotSame(registry, attached);
+      try {
+        attached.register(Object.class, failing);
+        fail();
+      } catch (IllegalStateException e) {}
+      assertEquals(json.replace("\"attributes\":\"a\"",
+          "\"attributes\":{\"value\":\"a\"}")
+          .replace("\"attributes\":\"b\"",
+              "\"attributes\":{\"value\":\"b\"}")
+          .replace("\"attributes\":\"c\"",
+              "\"attributes\":{\"letter\":\"c\"}"),
+          rsd.toJson());
+    } finally {
+      ObjectMapperFactory.setSnapshot(snapshot);
+    }
+    assertEquals(json, rsd.toJson());
+  }
+
+  @Test
+  public void testRawAttributes() throws Exception {
+    ResourcesDocument<RawAttributes> rsd = JsonApi.resourcesDocument();
+    rsd.getData().add(JsonApi.resource(
+        RawAttributes.of("{\"title\":\"JSON\",\"tags\":[1,2]}"), "raws",
+        "1"));
+    byte[] nested = "{\"nested\":{\"a\":null}}".getBytes("UTF-8");
+    rsd.getData().add(
+        JsonApi.resource(RawAttributes.validated(nested), "raws", "2"));
+    String json = "{\"data\":[{\"type\":\"raws\",\"id\":\"1\","
+        + "\"attributes\":{\"title\":\"JSON\",\"tags\":[1,2]}},"
+        + "{\"type\":\"raws\",\"id\":\"2\","
+        + "\"attributes\":{\"nested\":{\"a\":null}}}]}";
+    assertEquals(json, rsd.toJson());
+    assertEquals(json, new String(rsd.toJsonBytes(), "UTF-8"));
+    assertEquals(json, rsd.toJson(null));
+
+    ResourcesDocument<RawAttributes> read =
+        JsonApi.readResourcesDocument(json, RawAttributes.class);
+    assertEquals(RawAttributes.of("{\"title\":\"JSON\",\"tags\":[1,2]}"),
+        read.getData().get(0).getAttributes());
+    assertEquals(json, read.toJson());
+    assertEquals(json,
+        JsonApi.readResourcesDocument(DocumentFormat.SMILE.toBytes(rsd),
+            RawAttributes.class, DocumentFormat.SMILE).toJson());
+    assertArrayEquals(nested, read.getData().get(1).getAttributes().toBytes());
+
+    byte[] utf8 = "{\"name\":\"\u5b57\"}".getBytes("UTF-8");
+    RawAttributes raw = RawAttributes.of(utf8);
+    utf8[2] = 'N';
+    assertEquals("{\"name\":\"\u5b57\"}", raw.getJson());
+    ResourceDocument<RawAttributes> rd =
+        JsonApi.resourceDocument(raw, "raws", "3");
+    assertEquals(rd.toJson(), new String(rd.toJsonBytes(), "UTF-8"));
+    assertEquals(raw, JsonApi
+        .readResourceDocument(rd.toJsonBytes(), RawAttributes.class)
+        .getData().getAttributes());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRawAttributes() {
+    RawAttributes.validated("[{}]");
+  }
+
+  @Test
+  public void testPagination() {
+    final List<Integer> rows = new ArrayList<Integer>();
+    for (int i = 0; i < 25; i++) {
+      rows.add(i);
+    }
+    final int[] counts = new int[1];
+    final OffsetSource<Integer> offsetSource = offsetSource(rows);
+    KeysetSource<Integer> keysetSource = new KeysetSource<Integer>() {
+
+      @Override
+      public List<Integer> fetchAfter(String cursor, int limit) {
+        int from = cursor == null ? 0 : Integer.parseInt(cursor) + 1;
+        return offsetSource.fetch(from, limit);
+      }
+
+      @Override
+      public String cursorOf(Integer item) {
+        return item.toString();
+      }
+
+    };
+    Supplier<Long> total = new Supplier<Long>() {
+
+      @Override
+      public Long get() {
+        counts[0]++;
+        return (long) rows.size();
+      }
+
+    };
+
+    Pagination pagination = Pagination.offsetFromQueryParameters(
+        ImmutableMap.of("page[offset]", "10", "page[limit]", "100"), 20, 10);
+    assertEquals(Pagination.offset(10, 10), pagination);
+    Page<Integer> page = Page.fetch(pagination, offsetSource);
+    assertEquals(rows.subList(10, 20), page.getItems());
+    assertTrue(page.hasNext());
+    assertEquals(Pagination.offset(20, 10), page.getNextPagination());
+    assertEquals(
+        ImmutableSet.of("first", "prev", "next"), page.links("/a").keySet());
+    assertEquals(0, counts[0]);
+
+    page.withTotal(total);
+    ResourcesDocument<Integer> rsd = JsonApi
+        .resourcesDocument(page.getItems(), "ints")
+        .withPageLinks(page, "/ints?sort=id");
+    assertEquals("/ints?sort=id&page[offset]=0&page[limit]=10",
+        rsd.getLinks().get("first").getHref());
+    assertEquals("/ints?sort=id&page[offset]=0&page[limit]=10",
+        rsd.getLinks().get("prev").getHref());
+    assertEquals("/ints?sort=id&page[offset]=20&page[limit]=10",
+        rsd.getLinks().get("next").getHref());
+    assertEquals("/ints?sort=id&page[offset]=20&page[limit]=10",
+        rsd.getLinks().get("last").getHref());
+    assertEquals(Long.valueOf(25), page.getTotal());
+    assertEquals(1, counts[0]);
+
+    page = Page.fetch(Pagination.offset(20, 10), offsetSource);
+    assertFalse(page.hasNext());
+    assertNull(page.getNextPagination());
+    assertEquals(rows.subList(20, 25), page.getItems());
+
+    page = Page.fetch(Pagination.cursorFromQueryParameters(
+        ImmutableMap.of("page[cursor]", "9"), 10, 50), keysetSource);
+    assertEquals(rows.subList(10, 20), page.getItems());
+    assertEquals("/ints?page[cursor]=19&page[size]=10",
+        page.links("/ints").get("next").getHref());
+    assertEquals(
+        ImmutableSet.of("first", "next"), page.links("/ints").keySet());
+
+    Iterator<Page<Integer>> pages = Page.iterate(keysetSource, 10);
+    assertEquals(rows.subList(0, 10), pages.next().getItems());
+    assertEquals(rows.subList(10, 20), pages.next().getItems());
+    assertEquals(rows.subList(20, 25), pages.next().getItems());
+    assertFalse(pages.hasNext());
+    assertEquals(rows, Lists.newArrayList(Page.items(keysetSource, 7)));
+  }
+
+  private static OffsetSource<Integer> offsetSource(
+      final List<Integer> rows) {
+    return new OffsetSource<Integer>() {
+
+      @Override
+      public List<Integer> fetch(long offset, int limit) {
+        return rows.subList((int) Math.min(offset, rows.size()),
+            (int) Math.min(offset + limit, rows.size()));
+      }
+
+    };
+  }
+
+  @Test
+  public void testLinkTemplates() throws Exception {
+    ResourcesDocument<String> explicit =
+        JsonApi.resourcesDocument(Arrays.asList("a", "b c"), "strings",
+            new Function<String, String>() {
+
+              @Override
+              public String apply(String input) {
+                return input;
+              }
+
+            });
+    ResourcesDocument<String> templated = JsonApi.readResourcesDocument(
+        explicit.toJson(), String.class);
+    for (ResourceObject<String> res : explicit.getData()) {
+      String id = res.getId().replace(" ", "%20");
+      res.getLinks().put("self",
+          JsonApi.link().withHref("http://x/strings/" + id));
+      Map<String, LinkObject> links = new LinkedHashMap<String, LinkObject>();
+      links.put("self", JsonApi.link()
+          .withHref("http://x/strings/" + id + "/relationships/next"));
+      res.getRelationships().put("next",
+          JsonApi.relationship(JsonApi.identifier("strings", "a"))
+              .withLinks(links));
+    }
+    for (ResourceObject<String> res : templated.getData()) {
+      res.getRelationships().put("next",
+          JsonApi.relationship(JsonApi.identifier("strings", "a")));
+    }
+    templated.getData().get(1).getLinks().put("self",
+        JsonApi.link().withHref("http://x/strings/b%20c"));
+    templated.include(JsonApi.resource("c", "letters"));
+
+    LinkTemplates linkTemplates = new LinkTemplates()
+        .withResourceLink("self", "http://x/{type}/{id}")
+        .withRelationshipLink("self",
+            "http://x/{type}/{id}/relationships/{rel}")
+        .withResourceLink("letters", "self", "http://x/letters");
+    ObjectMapperSnapshot snapshot = ObjectMapperFactory.getSnapshot();
+    try {
+      ObjectMapperFactory.setSnapshot(
+          snapshot.withLinkTemplates(linkTemplates));
+      ResourceObject<String> letter = JsonApi.resource("c", "letters");
+      letter.getLinks().put("self",
+          JsonApi.link().withHref("http://x/letters"));
+      explicit.include(letter);
+      linkTemplates.withResourceLink("strings", "self", "http://y");
+      assertEquals(explicit.toJson(), templated.toJson());
+      try {
+        ObjectMapperFactory.getSnapshot().getLinkTemplates()
+            .withResourceLink("self", "http://y");
+        fail();
+      } catch (IllegalStateException e) {}
+      assertEquals(explicit.toJson(), templated.toJson(null));
+      assertEquals(explicit.toJson(), new SparseFieldsets()
+          .withFields("strings", "next").toJson(templated));
+    } finally {
+      ObjectMapperFactory.setSnapshot(snapshot);
+    }
+    assertTrue(templated.getData().get(0).getLinks().isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLinkTemplatesUnknownVariable() {
+    new LinkTemplates().withResourceLink("self", "/{type}/{rel}");
+  }
+
+  @Test
+  public void testResourceTypes() throws Exception {
+    ResourceTypes.register("known");
+    String known = ResourceTypes.canonicalize("known");
+    assertSame(known, ResourceTypes.canonicalize(new String("known")));
+    assertNull(ResourceTypes.canonicalize(null));
+
+    String json = "{\"data\":[{\"type\":\"known\",\"id\":\"1\"},"
+        + "{\"type\":\"known\",\"id\":\"2\",\"relationships\":"
+        + "{\"next\":{\"data\":{\"type\":\"known\",\"id\":\"1\"}}}}]}";
+    ResourcesDocument<Object> rsd =
+        JsonApi.readResourcesDocument(json, Object.class);
+    assertSame(known, rsd.getData().get(0).getType());
+    assertSame(known, rsd.getData().get(1).getType());
+    assertSame(known, rsd.getData().get(1).getRelationships().get("next")
+        .getData().getType());
+    assertSame(known,
+        JsonApi.resource("a", new String("known"), "3").getType());
+
+    int size = ResourceTypes.size();
+    ResourceTypes.setMaxSize(size);
+    try {
+      String unknown = new String("unknown-" + size);
+      assertSame(unknown, ResourceTypes.canonicalize(unknown));
+      assertEquals(size, ResourceTypes.size());
+    } finally {
+      ResourceTypes.setMaxSize(ResourceTypes.DEFAULT_MAX_SIZE);
+    }
+  }
+
+  @Test
+  public void testFreeze() {
+    List<String> rows = new ArrayList<String>();
+    for (int i = 0; i < 1000; i++) {
+      rows.add("row" + i);
+    }
+    ResourcesDocument<String> rsd = JsonApi.resourcesDocument(rows, "rows");
+    ResourceObject<String> shared =
+        JsonApi.resource("c", "letters", "c").freeze();
+    rsd.getData().get(0).getRelationships().put("letter",
+        JsonApi.relationship(JsonApi.identifier("letters", "c")));
+    rsd.getData().get(0).getLinks().put("self", JsonApi.link().withHref("/0"));
+    rsd.include(shared);
+    rsd.getLinks().put("self", JsonApi.link().withHref("/rows"));
+
+    ResourcesDocument<String> frozen = rsd.freeze();
+    assertNotSame(rsd, frozen);
+    assertSame(frozen, frozen.freeze());
+    assertSame(shared, frozen.getIncluded().get(0));
+    assertEquals(rsd, frozen);
+    assertEquals(frozen, rsd);
+    assertEquals(rsd.hashCode(), frozen.hashCode());
+    assertEquals(rsd.toJson(), frozen.toJson());
+    assertEquals(rsd.toJson(), frozen.toJson(null));
+    try {
+      frozen.getData().add(JsonApi.resource("x", "rows"));
+      fail();
+    } catch (UnsupportedOperationException e) {}
+    try {
+      frozen.getData().get(0).setId("1");
+      fail();
+    } catch (UnsupportedOperationException e) {}
+    try {
+      frozen.getData().get(0).getRelationships().get("letter").getIdentifier()
+          .withId("d");
+      fail();
+    } catch (UnsupportedOperationException e) {}
+    try {
+      frozen.getData().get(0).getLinks().get("self").setHref("/1");
+      fail();
+    } catch (UnsupportedOperationException e) {}
+    try {
+      frozen.include(JsonApi.resource("d", "letters", "d"));
+      fail();
+    } catch (UnsupportedOperationException e) {}
+    rsd.getData().get(1).setId("1");
+    assertFalse(rsd.equals(frozen));
+    assertNull(frozen.getData().get(1).getId());
+    assertSame(frozen.getData().get(1).getLinks(),
+        frozen.getData().get(2).getRelationships());
+    try {
+      frozen.getData().get(1).getLinks().put("self", JsonApi.link());
+      fail();
+    } catch (UnsupportedOperationException e) {}
+    ResourceObject<String> relinked = JsonApi.resource("c", "letters", "c")
+        .withLinks(frozen.getData().get(0).getLinks())
+        .withRelationships(
+            ImmutableMap.<String, RelationshipObject<?>> of("letter",
+                frozen.getData().get(0).getRelationships().get("letter")));
+    ResourceObject<String> refrozen = relinked.freeze();
+    assertSame(relinked.getLinks(), refrozen.getLinks());
+    assertSame(relinked.getRelationships(), refrozen.getRelationships());
+
+    ErrorsDocument ed = JsonApi.errorsDocument();
+    ed.getErrors().add(JsonApi.error().withTitle("Oops!")
+        .withSource(new SourceObject().withPointer("/data")));
+    ErrorsDocument frozenErrors = ed.freeze();
+    assertEquals(ed.toJson(), frozenErrors.toJson());
+    try {
+      frozenErrors.getErrors().get(0).getSource().setPointer("");
+      fail();
+    } catch (UnsupportedOperationException e) {}
+  }
+
+  @Test
+  public void testDocumentCache() throws Exception {
+    DocumentCache cache = new DocumentCache(1 << 20);
+    ResourceDocument<String> doc =
+        JsonApi.resourceDocument("a", "letters", "a");
+
+    CachedDocument cached = cache.get(doc);
+    assertArrayEquals(doc.toJsonBytes(), cached.toBytes());
+    assertEquals(ETags.of(doc.toJsonBytes()), cached.getETag());
+    ResourceDocument<String> same =
+        JsonApi.resourceDocument("a", "letters", "a");
+    assertSame(cached, cache.get(same));
+    doc.getData().setId("b");
+    assertSame(cached, cache.get(same));
+    assertNotSame(cached, cache.get(doc));
+    assertEquals(2, cache.stats().hitCount());
+    assertEquals(2, cache.stats().missCount());
+    ResourceDocument<StringBuilder> builder = JsonApi
+        .resourceDocument(new StringBuilder("a"), "letters", "a").freeze();
+    assertSame(cached, cache.get(builder));
+    assertSame(cached, cache.get(builder));
+    assertSame(cached, cache.get(JsonApi
+        .resourceDocument(new StringBuilder("a"), "letters", "a").freeze()));
+    cached.writeTo(new OutputStream() {
+
+      @Override
+      public void write(int b) {}
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+        Arrays.fill(b, (byte) 0);
+      }
+
+    });
+    assertArrayEquals(same.toJsonBytes(), cache.get(same).toBytes());
+
+    final int[] builds = new int[1];
+    Supplier<ResourceDocument<String>> supplier =
+        new Supplier<ResourceDocument<String>>() {
+
+          @Override
+          public ResourceDocument<String> get() {
+            builds[0]++;
+            return JsonApi.resourceDocument("c", "letters", "c");
+          }
+
+        };
+    assertNull(cache.getIfPresent("/letters/c", 1));
+    CachedDocument versioned = cache.get("/letters/c", 1, supplier);
+    assertSame(versioned, cache.get("/letters/c", 1, supplier));
+    assertSame(versioned, cache.getIfPresent("/letters/c", 1));
+    assertNotSame(versioned, cache.get("/letters/c", 2, supplier));
+    assertEquals(2, builds[0]);
+    assertTrue(cache.getIfPresent("/letters/c", 1)
+        .matches("\"x\", W/" + versioned.getETag()));
+    assertTrue(versioned.matches("*"));
+    assertFalse(versioned.matches("\"x\""));
+    assertFalse(versioned.matches(null));
+
+    DocumentCache tiny = new DocumentCache(cached.size() - 1);
+    assertArrayEquals(cached.toBytes(), tiny.get(same).toBytes());
+    assertEquals(0, tiny.size());
+    assertEquals(1, tiny.stats().evictionCount());
+
+    String etag = ETags.builder().add("letters", "a", 1).add("fields=x")
+        .build();
+    assertEquals(etag,
+        ETags.builder().add("letters", "a", 1).add("fields=x").build());
+    assertFalse(etag.equals(
+        ETags.builder().add("letters", "a", 2).add("fields=x").build()));
+    assertFalse(etag.equals(
+        ETags.builder().add("letter", "sa", 1).add("fields=x").build()));
+  }
+
 }